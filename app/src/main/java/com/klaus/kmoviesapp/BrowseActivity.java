@@ -1,6 +1,5 @@
 package com.klaus.kmoviesapp;
 
-import android.content.Intent;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.ProgressBar;
@@ -13,20 +12,35 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.klaus.kmoviesapp.adapters.MovieAdapter;
 import com.klaus.kmoviesapp.models.Movie;
+import com.klaus.kmoviesapp.scraper.CatalogStore;
 import com.klaus.kmoviesapp.scraper.ScraperTask;
+import com.klaus.kmoviesapp.scraper.TaskEngine;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class BrowseActivity extends FragmentActivity {
     private static final String TAG = "BrowseActivity";
+    private static final int CATALOG_PAGE_SIZE = 60;
+    // Load the next catalog page once this few cards are left below the last visible one
+    private static final int PREFETCH_DISTANCE = 12;
 
     private TextView titleTextView;
     private RecyclerView moviesRecyclerView;
     private ProgressBar progressBar;
     
     private MovieAdapter movieAdapter;
-    private List<Movie> movies;
+    private TaskEngine.TaskHandle loadTask;
+    private List<Movie> liveMovies = Collections.emptyList();
+
+    // Stored titles matching this screen, paged in from the catalog as the grid scrolls
+    private CatalogStore.Query catalogQuery;
+    private TaskEngine.TaskHandle pageTask;
+    private final List<Movie> storedMovies = new ArrayList<>();
+    private boolean storedExhausted;
     
     private String categoryName;
     private String categoryUrl;
@@ -38,6 +52,7 @@ public class BrowseActivity extends FragmentActivity {
 
         categoryName = getIntent().getStringExtra("category");
         categoryUrl = getIntent().getStringExtra("url");
+        catalogQuery = catalogQueryFor(categoryUrl);
 
         initializeViews();
         loadContent();
@@ -51,10 +66,19 @@ public class BrowseActivity extends FragmentActivity {
         titleTextView.setText(categoryName);
 
         // Setup RecyclerView with Grid Layout
-        moviesRecyclerView.setLayoutManager(new GridLayoutManager(this, 4));
+        GridLayoutManager layoutManager = new GridLayoutManager(this, 4);
+        moviesRecyclerView.setLayoutManager(layoutManager);
+        moviesRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= movieAdapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadCatalogPage();
+                }
+            }
+        });
 
-        movies = new ArrayList<>();
-        movieAdapter = new MovieAdapter(this, movies, new MovieAdapter.OnMovieClickListener() {
+        movieAdapter = new MovieAdapter(this, new MovieAdapter.OnMovieClickListener() {
             @Override
             public void onMovieClick(Movie movie) {
                 openMovieDetails(movie);
@@ -64,18 +88,41 @@ public class BrowseActivity extends FragmentActivity {
     }
 
     private void loadContent() {
+        if (loadTask != null) {
+            loadTask.cancel();
+        }
+        if (pageTask != null) {
+            pageTask.cancel();
+            pageTask = null;
+        }
+        liveMovies = Collections.emptyList();
+        storedMovies.clear();
+        storedExhausted = catalogQuery == null;
         showLoading(true);
+        loadCatalogPage();
 
         ScraperTask task = new ScraperTask(
             ScraperTask.ScraperType.CATEGORY,
-            new ScraperTask.ScraperCallback() {
+            new ScraperTask.ProgressiveScraperCallback() {
+                private final List<Movie> received = new ArrayList<>();
+
+                @Override
+                public void onScrapingProgress(List<Movie> batch) {
+                    // Show the first posters while the rest of the page is still loading
+                    if (received.isEmpty()) {
+                        showLoading(false);
+                    }
+                    received.addAll(batch);
+                    liveMovies = new ArrayList<>(received);
+                    showMovies();
+                }
+
                 @Override
                 public void onScrapingComplete(List<Movie> loadedMovies) {
                     runOnUiThread(() -> {
                         showLoading(false);
-                        movies.clear();
-                        movies.addAll(loadedMovies);
-                        movieAdapter.notifyDataSetChanged();
+                        liveMovies = loadedMovies;
+                        showMovies();
                     });
                 }
 
@@ -88,13 +135,86 @@ public class BrowseActivity extends FragmentActivity {
                 }
             }
         );
-        task.execute(categoryUrl);
+        loadTask = task.bindTo(this).execute(categoryUrl);
+    }
+
+    /**
+     * Fetch the next page of stored titles for this screen, unless one is loading or all are shown
+     */
+    private void loadCatalogPage() {
+        if (storedExhausted || pageTask != null) {
+            return;
+        }
+
+        final CatalogStore.Query query = catalogQuery;
+        final int offset = storedMovies.size();
+        pageTask = TaskEngine.submit(TaskEngine.Priority.VISIBLE,
+                () -> CatalogStore.query(query, offset, CATALOG_PAGE_SIZE),
+                new TaskEngine.Callback<List<Movie>>() {
+                    @Override
+                    public void onSuccess(List<Movie> page) {
+                        pageTask = null;
+                        storedExhausted = page.size() < CATALOG_PAGE_SIZE;
+                        if (page.isEmpty()) {
+                            return;
+                        }
+                        storedMovies.addAll(page);
+                        showLoading(false);
+                        showMovies();
+                    }
+
+                    @Override
+                    public void onError(Exception error) {
+                        pageTask = null;
+                        storedExhausted = true;
+                    }
+                }).bindTo(this);
+    }
+
+    /**
+     * The scraped page first, followed by the stored titles it does not list
+     */
+    private void showMovies() {
+        List<Movie> shown = new ArrayList<>(liveMovies);
+        Set<String> seen = new HashSet<>();
+        for (Movie movie : liveMovies) {
+            seen.add(movie.getDetailUrl());
+        }
+        for (Movie movie : storedMovies) {
+            if (seen.add(movie.getDetailUrl())) {
+                shown.add(movie);
+            }
+        }
+        movieAdapter.submitList(shown);
+    }
+
+    /**
+     * Catalog filter for a browse path such as "/genre/action", "/country/united-states" or
+     * "/year/2024". The bare "/genre", "/country" and "/year" pages list every stored title.
+     * Returns null for paths the catalog cannot answer.
+     */
+    static CatalogStore.Query catalogQueryFor(String path) {
+        if (path == null) {
+            return null;
+        }
+        String[] segments = path.replaceAll("^/+|/+$", "").split("/");
+        String value = segments.length > 1 ? segments[1].replace('-', ' ') : null;
+
+        CatalogStore.Query.Builder builder = new CatalogStore.Query.Builder();
+        switch (segments[0]) {
+            case "genre":
+                return builder.genre(value).orderBy(CatalogStore.Order.RATING).build();
+            case "country":
+                return builder.country(value).orderBy(CatalogStore.Order.RATING).build();
+            case "year":
+                return builder.year(value).orderBy(CatalogStore.Order.YEAR).build();
+            default:
+                return null;
+        }
     }
 
     private void openMovieDetails(Movie movie) {
-        Intent intent = new Intent(this, MovieDetailActivity.class);
-        intent.putExtra("movie", movie);
-        startActivity(intent);
+        startActivity(MovieDetailActivity.createIntent(this, movie));
     }
 
     private void showLoading(boolean show) {
@@ -0,0 +1,16 @@
+package com.klaus.kmoviesapp;
+
+import android.app.Application;
+
+import com.klaus.kmoviesapp.scraper.FMoviesScraper;
+
+/**
+ * Application entry point. Sets up process-wide scraper state.
+ */
+public class KMoviesApplication extends Application {
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        FMoviesScraper.init(this);
+    }
+}
@@ -14,16 +14,23 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.klaus.kmoviesapp.adapters.CategoryAdapter;
 import com.klaus.kmoviesapp.adapters.MovieAdapter;
+import com.klaus.kmoviesapp.adapters.MovieListAdapter;
 import com.klaus.kmoviesapp.adapters.TopWeekAdapter;
 import com.klaus.kmoviesapp.models.Category;
 import com.klaus.kmoviesapp.models.Movie;
+import com.klaus.kmoviesapp.scraper.FMoviesScraper;
+import com.klaus.kmoviesapp.scraper.HomeSnapshot;
 import com.klaus.kmoviesapp.scraper.ScraperTask;
+import com.klaus.kmoviesapp.scraper.TaskEngine;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class MainActivity extends FragmentActivity {
     private static final String TAG = "MainActivity";
+    private static final int HOME_PLACEHOLDER_CARDS = 12;
+    private static final int TOP_WEEK_PLACEHOLDER_CARDS = 5;
 
     private RecyclerView categoryRecyclerView;
     private RecyclerView topWeekRecyclerView;
@@ -35,8 +42,10 @@ public class MainActivity extends FragmentActivity {
     private MovieAdapter movieAdapter;
 
     private List<Category> categories;
-    private List<Movie> topWeekMovies;
-    private List<Movie> currentMovies;
+    // The scrape filling the movie grid; a newer one cancels it so its results never land late
+    private TaskEngine.TaskHandle gridTask;
+    // What that scrape showed from the catalog, kept on screen until the page has streamed in
+    private List<Movie> gridCached = Collections.emptyList();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -45,6 +54,7 @@ public class MainActivity extends FragmentActivity {
 
         initializeViews();
         setupCategories();
+        showHomeSnapshot();
         loadHomeContent();
     }
 
@@ -63,15 +73,13 @@ public class MainActivity extends FragmentActivity {
         topWeekRecyclerView.setLayoutManager(
                 new LinearLayoutManager(this, LinearLayoutManager.HORIZONTAL, false)
         );
-        topWeekMovies = new ArrayList<>();
-        topWeekAdapter = new TopWeekAdapter(this, topWeekMovies, movie -> openMovieDetails(movie));
+        topWeekAdapter = new TopWeekAdapter(this, movie -> openMovieDetails(movie));
         topWeekRecyclerView.setAdapter(topWeekAdapter);
 
         // Setup movies RecyclerView with GridLayout for better browsing
         moviesRecyclerView.setLayoutManager(new GridLayoutManager(this, 4));
 
-        currentMovies = new ArrayList<>();
-        movieAdapter = new MovieAdapter(this, currentMovies, movie -> openMovieDetails(movie));
+        movieAdapter = new MovieAdapter(this, movie -> openMovieDetails(movie));
         moviesRecyclerView.setAdapter(movieAdapter);
     }
 
@@ -90,54 +98,81 @@ public class MainActivity extends FragmentActivity {
         categoryRecyclerView.setAdapter(categoryAdapter);
     }
 
+    /**
+     * Render the rows saved on the last run, so the first frame has content before any network call
+     */
+    private void showHomeSnapshot() {
+        HomeSnapshot snapshot = HomeSnapshot.load();
+        if (snapshot == null) {
+            return;
+        }
+        // The first list an adapter gets is shown without diffing, in time for the first frame
+        List<Movie> movies = snapshot.getRow(HomeSnapshot.ROW_HOME_GRID);
+        List<Movie> topWeek = snapshot.getRow(HomeSnapshot.ROW_TOP_WEEK);
+        movieAdapter.submitList(movies);
+        topWeekAdapter.submitList(topWeek);
+        Log.d(TAG, "Home snapshot: " + movies.size() + " movies, " + topWeek.size() + " top week");
+    }
+
     private void loadHomeContent() {
-        showLoading(true);
+        // Fetch every home section at once. Each section keeps its slot and shows
+        // skeleton cards until its own data lands, so the fastest one renders first.
+        showLoading(false);
+        movieAdapter.setPlaceholderCount(HOME_PLACEHOLDER_CARDS);
+        topWeekAdapter.setPlaceholderCount(TOP_WEEK_PLACEHOLDER_CARDS);
+        topWeekRecyclerView.setVisibility(View.VISIBLE);
+
+        loadHomeGrid();
+        loadTopThisWeek();
+    }
 
+    private void loadHomeGrid() {
         ScraperTask task = new ScraperTask(ScraperTask.ScraperType.HOME, new ScraperTask.ScraperCallback() {
             @Override
             public void onScrapingComplete(List<Movie> movies) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-                    currentMovies.clear();
-                    currentMovies.addAll(movies);
-                    movieAdapter.notifyDataSetChanged();
-                    Log.d(TAG, "Loaded " + movies.size() + " movies");
-
-                    // Load top this week after home content
-                    loadTopThisWeek();
-                });
+                movieAdapter.setPlaceholderCount(0);
+                movieAdapter.submitList(movies);
+                HomeSnapshot.saveRow(HomeSnapshot.ROW_HOME_GRID, movies);
+                Log.d(TAG, "Loaded " + movies.size() + " movies");
             }
 
             @Override
             public void onScrapingError(String error) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-                    Toast.makeText(MainActivity.this, error, Toast.LENGTH_SHORT).show();
-                    Log.e(TAG, "Error: " + error);
-                });
+                movieAdapter.setPlaceholderCount(0);
+                Toast.makeText(MainActivity.this, error, Toast.LENGTH_SHORT).show();
+                Log.e(TAG, "Error: " + error);
             }
         });
-        task.execute();
+        startGridTask(task);
     }
 
     private void loadTopThisWeek() {
-        // Create a background task to load top this week
-        new Thread(() -> {
-
-            List<Movie> topMovies = com.klaus.kmoviesapp.scraper.FMoviesScraper.scrapeTopThisWeek(
-                    "https://popcornmovies.org/movies"
-            );
-
-            runOnUiThread(() -> {
-                if (topMovies != null && !topMovies.isEmpty()) {
-                    topWeekMovies.clear();
-                    topWeekMovies.addAll(topMovies);
-                    topWeekAdapter.notifyDataSetChanged();
-                    topWeekRecyclerView.setVisibility(View.VISIBLE);
-                    Log.d(TAG, "Loaded " + topMovies.size() + " top week movies");
-                }
-            });
-        }).start();
+        // Load top this week in the background, sharing the home page fetch when possible
+        TaskEngine.submit(TaskEngine.Priority.VISIBLE,
+                FMoviesScraper::scrapeHomeTopThisWeek,
+                new TaskEngine.Callback<List<Movie>>() {
+                    @Override
+                    public void onSuccess(List<Movie> topMovies) {
+                        topWeekAdapter.setPlaceholderCount(0);
+                        if (topMovies != null && !topMovies.isEmpty()) {
+                            topWeekAdapter.submitList(topMovies);
+                            HomeSnapshot.saveRow(HomeSnapshot.ROW_TOP_WEEK, topMovies);
+                            topWeekRecyclerView.setVisibility(View.VISIBLE);
+                            Log.d(TAG, "Loaded " + topMovies.size() + " top week movies");
+                        } else {
+                            topWeekRecyclerView.setVisibility(View.GONE);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception error) {
+                        topWeekAdapter.setPlaceholderCount(0);
+                        if (topWeekAdapter.getCurrentList().isEmpty()) {
+                            topWeekRecyclerView.setVisibility(View.GONE);
+                        }
+                        Log.e(TAG, "Error loading top this week: " + error.getMessage());
+                    }
+                }).bindTo(this);
     }
 
     private void loadCategoryContent(Category category) {
@@ -166,14 +201,25 @@ public class MainActivity extends FragmentActivity {
             return;
         }
 
-        ScraperTask task = new ScraperTask(scraperType, new ScraperTask.ScraperCallback() {
+        ScraperTask task = new ScraperTask(scraperType, new ScraperTask.ProgressiveScraperCallback() {
+            private final List<Movie> received = new ArrayList<>();
+
+            @Override
+            public void onScrapingProgress(List<Movie> batch) {
+                // Show the first posters while the rest of the page is still loading
+                if (received.isEmpty()) {
+                    showLoading(false);
+                }
+                received.addAll(batch);
+                movieAdapter.submitList(MovieListAdapter.mergeReceived(received, gridCached));
+            }
+
             @Override
             public void onScrapingComplete(List<Movie> movies) {
                 runOnUiThread(() -> {
                     showLoading(false);
-                    currentMovies.clear();
-                    currentMovies.addAll(movies);
-                    movieAdapter.notifyDataSetChanged();
+                    // Usually matches the batches already shown, so the diff is empty
+                    movieAdapter.submitList(movies);
 
                     // Hide top week for non-home categories
                     if (categoryPath.equals("/") || categoryPath.equals("/home")) {
@@ -195,13 +241,29 @@ public class MainActivity extends FragmentActivity {
                 });
             }
         });
-        task.execute();
+        startGridTask(task);
+    }
+
+    private void startGridTask(ScraperTask task) {
+        if (gridTask != null) {
+            gridTask.cancel();
+        }
+        gridCached = Collections.emptyList();
+        gridTask = task.showCached(this::showCachedMovies).bindTo(this).execute();
+    }
+
+    /**
+     * Render the stored list for a page while its network refresh is running
+     */
+    private void showCachedMovies(List<Movie> movies) {
+        showLoading(false);
+        movieAdapter.setPlaceholderCount(0);
+        gridCached = movies;
+        movieAdapter.submitList(movies);
     }
 
     private void openMovieDetails(Movie movie) {
-        Intent intent = new Intent(this, MovieDetailActivity.class);
-        intent.putExtra("movie", movie);
-        startActivity(intent);
+        startActivity(MovieDetailActivity.createIntent(this, movie));
     }
 
     private void openSettingsActivity() {
@@ -1,13 +1,43 @@
 package com.klaus.kmoviesapp;
 
+import android.content.Context;
+import android.content.Intent;
 import android.os.Bundle;
 import androidx.fragment.app.FragmentActivity;
 import com.klaus.kmoviesapp.fragments.MovieDetailFragment;
+import com.klaus.kmoviesapp.models.Movie;
+import com.klaus.kmoviesapp.scraper.MovieRegistry;
 
 /**
  * Host activity for the MovieDetailFragment.
  */
 public class MovieDetailActivity extends FragmentActivity {
+    private static final String EXTRA_MOVIE_KEY = "movie_key";
+    private static final String EXTRA_MOVIE = "movie";
+
+    /**
+     * Open a title's details. The screen reads the live instance from MovieRegistry by its
+     * detail URL; the parcelled card fields are only used if the process was restarted.
+     */
+    public static Intent createIntent(Context context, Movie movie) {
+        Movie live = MovieRegistry.canonical(movie);
+        Intent intent = new Intent(context, MovieDetailActivity.class);
+        intent.putExtra(EXTRA_MOVIE_KEY, live.getDetailUrl());
+        intent.putExtra(EXTRA_MOVIE, live);
+        return intent;
+    }
+
+    /**
+     * The title an intent from {@link #createIntent(Context, Movie)} refers to, or null
+     */
+    public static Movie readMovie(Intent intent) {
+        Movie live = MovieRegistry.get(intent.getStringExtra(EXTRA_MOVIE_KEY));
+        if (live != null) {
+            return live;
+        }
+        Movie parcelled = intent.getParcelableExtra(EXTRA_MOVIE);
+        return parcelled != null ? MovieRegistry.canonical(parcelled) : null;
+    }
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -18,6 +18,8 @@ import androidx.media3.common.util.UnstableApi;
 import androidx.media3.ui.PlayerView;
 
 import com.klaus.kmoviesapp.scraper.FMoviesScraper;
+import com.klaus.kmoviesapp.scraper.QualityLadder;
+import com.klaus.kmoviesapp.scraper.TaskEngine;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -39,7 +41,7 @@ public class PlayerActivity extends FragmentActivity {
     private PlayerManager mplayer;
     private String movieTitle;
     private String tmdbId;
-    private Map<String, String> availableQualities;
+    private QualityLadder availableQualities;
     private List<PlayerManager.SubtitleInfo> subtitles;
     private int currentSubtitleIndex = -1; // -1 means no subtitle
 
@@ -52,8 +54,7 @@ public class PlayerActivity extends FragmentActivity {
         // Disable Picture-in-Picture
         disablePictureInPicture();
 
-        //tmdbId = getIntent().getStringExtra("tmdb_id");
-        tmdbId = "278";
+        tmdbId = getIntent().getStringExtra("tmdb_id");
         movieTitle = getIntent().getStringExtra("movie_title");
 
         Log.d(TAG, "Received tmdb_id: " + tmdbId);
@@ -91,39 +92,39 @@ public class PlayerActivity extends FragmentActivity {
     }
 
     private void loadStreamData() {
-        // Load stream data in background thread
-        new Thread(() -> {
-            try {
-                Log.d(TAG, "Extracting stream URL for TMDB ID: " + tmdbId);
-
-                FMoviesScraper.StreamResult result =
-                        FMoviesScraper.extractStreamUrlWithSubtitles(tmdbId);
-
-                if (result != null && result.streamUrl != null) {
-                    Log.d(TAG, "Stream extraction successful");
-
-                    // Store available qualities
-                    availableQualities = result.qualities;
-
-                    // Convert subtitles map to list
-                    subtitles = convertSubtitlesToList(result.subtitles);
-
-                    // Extract headers from the stream URL if needed
-                    Map<String, String> headers = extractHeadersFromUrl(result.streamUrl);
-
-                    runOnUiThread(() -> {
-                        loadingIndicator.setVisibility(View.GONE);
-                        initializePlayer(result.streamUrl, headers, subtitles);
-                    });
-                } else {
-                    runOnUiThread(() -> showError("Failed to extract stream URL"));
-                }
+        // Load stream data in the PLAY lane, cancelled if the player is closed first
+        Log.d(TAG, "Extracting stream URL for TMDB ID: " + tmdbId);
+
+        TaskEngine.submit(TaskEngine.Priority.PLAY,
+                () -> FMoviesScraper.extractStreamUrlWithSubtitles(tmdbId),
+                new TaskEngine.Callback<FMoviesScraper.StreamResult>() {
+                    @Override
+                    public void onSuccess(FMoviesScraper.StreamResult result) {
+                        if (result != null && result.streamUrl != null) {
+                            Log.d(TAG, "Stream extraction successful");
+
+                            // Store available qualities
+                            availableQualities = result.qualities;
+
+                            // Convert subtitle ladder to list
+                            subtitles = convertSubtitlesToList(result.subtitles);
+
+                            // Extract headers from the stream URL if needed
+                            Map<String, String> headers = extractHeadersFromUrl(result.streamUrl);
+
+                            loadingIndicator.setVisibility(View.GONE);
+                            initializePlayer(result.streamUrl, headers, subtitles);
+                        } else {
+                            showError("Failed to extract stream URL");
+                        }
+                    }
 
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading stream data: " + e.getMessage(), e);
-                runOnUiThread(() -> showError("Error: " + e.getMessage()));
-            }
-        }).start();
+                    @Override
+                    public void onError(Exception e) {
+                        Log.e(TAG, "Error loading stream data: " + e.getMessage(), e);
+                        showError("Error: " + e.getMessage());
+                    }
+                }).bindTo(this);
     }
 
     private void initializePlayer(String streamUrl, Map<String, String> headers,
@@ -144,13 +145,13 @@ public class PlayerActivity extends FragmentActivity {
         }
     }
 
-    private List<PlayerManager.SubtitleInfo> convertSubtitlesToList(Map<String, String> subtitleMap) {
+    private List<PlayerManager.SubtitleInfo> convertSubtitlesToList(QualityLadder subtitleLadder) {
         List<PlayerManager.SubtitleInfo> subtitleList = new ArrayList<>();
 
-        if (subtitleMap != null && !subtitleMap.isEmpty()) {
-            for (Map.Entry<String, String> entry : subtitleMap.entrySet()) {
-                String language = entry.getKey();
-                String url = entry.getValue();
+        if (subtitleLadder != null && !subtitleLadder.isEmpty()) {
+            for (QualityLadder.Entry entry : subtitleLadder.entries()) {
+                String language = entry.label;
+                String url = entry.url;
 
                 // Determine subtitle type from URL
                 String type = "vtt"; // Default
@@ -273,25 +274,12 @@ public class PlayerActivity extends FragmentActivity {
             return;
         }
 
-        // Create quality list from available qualities
+        // The ladder is already ordered best first
         List<String> qualityLabels = new ArrayList<>();
         List<String> qualityUrls = new ArrayList<>();
-
-        // Add qualities in order of preference
-        String[] preferredOrder = {"1080p", "720p", "480p", "360p"};
-        for (String quality : preferredOrder) {
-            if (availableQualities.containsKey(quality)) {
-                qualityLabels.add(quality);
-                qualityUrls.add(availableQualities.get(quality));
-            }
-        }
-
-        // Add any remaining qualities
-        for (Map.Entry<String, String> entry : availableQualities.entrySet()) {
-            if (!qualityLabels.contains(entry.getKey())) {
-                qualityLabels.add(entry.getKey());
-                qualityUrls.add(entry.getValue());
-            }
+        for (QualityLadder.Entry entry : availableQualities.entries()) {
+            qualityLabels.add(entry.label);
+            qualityUrls.add(entry.url);
         }
 
         String[] qualities = qualityLabels.toArray(new String[0]);
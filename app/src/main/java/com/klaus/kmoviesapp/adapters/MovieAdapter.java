@@ -15,21 +15,17 @@ import com.bumptech.glide.Glide;
 import com.klaus.kmoviesapp.R;
 import com.klaus.kmoviesapp.models.Movie;
 
-import java.util.List;
-
-public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.MovieViewHolder> {
+public class MovieAdapter extends MovieListAdapter<MovieAdapter.MovieViewHolder> {
     
     private final Context context;
-    private final List<Movie> movies;
     private final OnMovieClickListener listener;
 
     public interface OnMovieClickListener {
         void onMovieClick(Movie movie);
     }
 
-    public MovieAdapter(Context context, List<Movie> movies, OnMovieClickListener listener) {
+    public MovieAdapter(Context context, OnMovieClickListener listener) {
         this.context = context;
-        this.movies = movies;
         this.listener = listener;
     }
 
@@ -42,7 +38,12 @@ public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.MovieViewHol
 
     @Override
     public void onBindViewHolder(@NonNull MovieViewHolder holder, int position) {
-        Movie movie = movies.get(position);
+        if (isShowingPlaceholders()) {
+            bindPlaceholder(holder);
+            return;
+        }
+
+        Movie movie = getItem(position);
         
         holder.titleTextView.setText(movie.getTitle());
         
@@ -102,9 +103,15 @@ public class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.MovieViewHol
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return movies.size();
+    private void bindPlaceholder(MovieViewHolder holder) {
+        Glide.with(context).clear(holder.thumbnailImageView);
+        holder.thumbnailImageView.setImageResource(R.drawable.placeholder_movie);
+        holder.titleTextView.setText("");
+        holder.yearTextView.setVisibility(View.GONE);
+        holder.ratingTextView.setVisibility(View.GONE);
+        holder.qualityTextView.setVisibility(View.GONE);
+        holder.durationTextView.setVisibility(View.GONE);
+        holder.cardView.setOnClickListener(null);
     }
 
     static class MovieViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,52 @@
+package com.klaus.kmoviesapp.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.klaus.kmoviesapp.models.Movie;
+
+/**
+ * Diffs card lists so a refresh only rebinds the cards that changed.
+ * Cards are the same title when they share a detail URL.
+ */
+public class MovieDiffCallback extends DiffUtil.ItemCallback<Movie> {
+
+    @Override
+    public boolean areItemsTheSame(@NonNull Movie oldItem, @NonNull Movie newItem) {
+        return sameTitle(oldItem, newItem);
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull Movie oldItem, @NonNull Movie newItem) {
+        return sameCard(oldItem, newItem);
+    }
+
+    public static boolean sameTitle(Movie a, Movie b) {
+        return a.getDetailUrl() != null && a.getDetailUrl().equals(b.getDetailUrl());
+    }
+
+    /**
+     * Whether everything a card shows is unchanged
+     */
+    public static boolean sameCard(Movie a, Movie b) {
+        return a.hasSameCard(b);
+    }
+
+    /**
+     * A 64-bit FNV-1a hash of the detail URL, so a title keeps its ID across refreshes.
+     * The occurrence count separates a title listed more than once on the same page.
+     */
+    public static long stableId(Movie movie, int occurrence) {
+        String key = movie.getDetailUrl() != null ? movie.getDetailUrl() : String.valueOf(movie.getTitle());
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        for (int i = 0; i < occurrence; i++) {
+            hash ^= '#';
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
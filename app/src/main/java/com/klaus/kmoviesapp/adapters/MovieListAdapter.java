@@ -0,0 +1,172 @@
+package com.klaus.kmoviesapp.adapters;
+
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.klaus.kmoviesapp.models.Movie;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Base for adapters that show a list of movie cards.
+ * A submitted list is diffed against the shown one on a background thread and only the
+ * cards that changed are rebound. Item IDs are derived from the detail URL, and while the list is
+ * empty a number of skeleton cards can be shown in its place.
+ */
+public abstract class MovieListAdapter<VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH> {
+    // The default diff pool, so a diff never queues behind scrapes in the TaskEngine lanes
+    private static final AsyncDifferConfig<Movie> DIFF_CONFIG =
+            new AsyncDifferConfig.Builder<>(new MovieDiffCallback()).build();
+
+    private final AsyncListDiffer<Movie> differ;
+    private int placeholderCount;
+
+    // IDs of the current list, computed on first use
+    private List<Movie> idsFor;
+    private long[] ids;
+
+    protected MovieListAdapter() {
+        differ = new AsyncListDiffer<>(new PlaceholderAwareUpdates(), DIFF_CONFIG);
+        setHasStableIds(true);
+    }
+
+    /**
+     * Show a new list. The first list is shown at once, later ones once their diff is done.
+     * The list must not be changed after it is submitted.
+     */
+    public void submitList(List<Movie> movies) {
+        differ.submitList(movies);
+    }
+
+    /**
+     * Same as submitList, running commitCallback once the list is shown
+     */
+    public void submitList(List<Movie> movies, Runnable commitCallback) {
+        differ.submitList(movies, commitCallback);
+    }
+
+    /**
+     * The list currently shown, read-only
+     */
+    public List<Movie> getCurrentList() {
+        return differ.getCurrentList();
+    }
+
+    /**
+     * Show this many skeleton cards while the list is still empty
+     */
+    public void setPlaceholderCount(int count) {
+        if (placeholderCount != count) {
+            placeholderCount = count;
+            if (getCurrentList().isEmpty()) {
+                notifyDataSetChanged();
+            }
+        }
+    }
+
+    /**
+     * The cards received so far, followed by the cards of an earlier list (such as the stored
+     * copy of the same page) they have not replaced yet. Streaming a page over its stored copy
+     * this way never shrinks the list while it loads. Always returns a new list.
+     */
+    public static List<Movie> mergeReceived(List<Movie> received, List<Movie> earlier) {
+        List<Movie> merged = new ArrayList<>(received);
+        if (earlier.size() <= received.size()) {
+            return merged;
+        }
+        Set<String> seen = new HashSet<>();
+        for (Movie movie : received) {
+            seen.add(movie.getDetailUrl());
+        }
+        for (int i = received.size(); i < earlier.size(); i++) {
+            Movie movie = earlier.get(i);
+            if (!seen.contains(movie.getDetailUrl())) {
+                merged.add(movie);
+            }
+        }
+        return merged;
+    }
+
+    protected boolean isShowingPlaceholders() {
+        return getCurrentList().isEmpty() && placeholderCount > 0;
+    }
+
+    protected Movie getItem(int position) {
+        return getCurrentList().get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        List<Movie> movies = getCurrentList();
+        return movies.isEmpty() ? placeholderCount : movies.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        List<Movie> movies = getCurrentList();
+        if (movies.isEmpty()) {
+            return Long.MIN_VALUE + position;
+        }
+        if (idsFor != movies) {
+            ids = computeIds(movies);
+            idsFor = movies;
+        }
+        return ids[position];
+    }
+
+    private static long[] computeIds(List<Movie> movies) {
+        long[] ids = new long[movies.size()];
+        Map<String, Integer> seen = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            Movie movie = movies.get(i);
+            String key = movie.getDetailUrl() != null ? movie.getDetailUrl() : movie.getTitle();
+            Integer occurrence = seen.get(key);
+            occurrence = occurrence == null ? 0 : occurrence + 1;
+            seen.put(key, occurrence);
+            ids[i] = MovieDiffCallback.stableId(movie, occurrence);
+        }
+        return ids;
+    }
+
+    /**
+     * Forwards diff results to the adapter. Skeleton cards are not part of the diffed list,
+     * so going from or to an empty list while they are shown rebinds everything instead.
+     */
+    private class PlaceholderAwareUpdates implements ListUpdateCallback {
+        @Override
+        public void onInserted(int position, int count) {
+            // The list is already replaced here, so inserting all of it means it was empty
+            if (placeholderCount > 0 && getCurrentList().size() == count) {
+                notifyDataSetChanged();
+            } else {
+                notifyItemRangeInserted(position, count);
+            }
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            if (isShowingPlaceholders()) {
+                notifyDataSetChanged();
+            } else {
+                notifyItemRangeRemoved(position, count);
+            }
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition, toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            notifyItemRangeChanged(position, count, payload);
+        }
+    }
+}
@@ -15,21 +15,17 @@ import com.bumptech.glide.Glide;
 import com.klaus.kmoviesapp.R;
 import com.klaus.kmoviesapp.models.Movie;
 
-import java.util.List;
-
-public class TopWeekAdapter extends RecyclerView.Adapter<TopWeekAdapter.TopWeekViewHolder> {
+public class TopWeekAdapter extends MovieListAdapter<TopWeekAdapter.TopWeekViewHolder> {
 
     private final Context context;
-    private final List<Movie> movies;
     private final OnMovieClickListener listener;
 
     public interface OnMovieClickListener {
         void onMovieClick(Movie movie);
     }
 
-    public TopWeekAdapter(Context context, List<Movie> movies, OnMovieClickListener listener) {
+    public TopWeekAdapter(Context context, OnMovieClickListener listener) {
         this.context = context;
-        this.movies = movies;
         this.listener = listener;
     }
 
@@ -42,7 +38,12 @@ public class TopWeekAdapter extends RecyclerView.Adapter<TopWeekAdapter.TopWeekV
 
     @Override
     public void onBindViewHolder(@NonNull TopWeekViewHolder holder, int position) {
-        Movie movie = movies.get(position);
+        if (isShowingPlaceholders()) {
+            bindPlaceholder(holder);
+            return;
+        }
+
+        Movie movie = getItem(position);
 
         holder.titleTextView.setText(movie.getTitle());
 
@@ -102,9 +103,15 @@ public class TopWeekAdapter extends RecyclerView.Adapter<TopWeekAdapter.TopWeekV
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return movies.size();
+    private void bindPlaceholder(TopWeekViewHolder holder) {
+        Glide.with(context).clear(holder.thumbnailImageView);
+        holder.thumbnailImageView.setImageResource(R.drawable.placeholder_movie);
+        holder.titleTextView.setText("");
+        holder.yearTextView.setVisibility(View.GONE);
+        holder.genreTextView.setVisibility(View.GONE);
+        holder.typeTextView.setVisibility(View.GONE);
+        holder.ratingContainer.setVisibility(View.GONE);
+        holder.itemView.setOnClickListener(null);
     }
 
     static class TopWeekViewHolder extends RecyclerView.ViewHolder {
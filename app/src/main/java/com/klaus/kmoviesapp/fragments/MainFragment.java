@@ -13,6 +13,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.leanback.app.BrowseSupportFragment;
 import androidx.leanback.widget.ArrayObjectAdapter;
+import androidx.leanback.widget.DiffCallback;
 import androidx.leanback.widget.HeaderItem;
 import androidx.leanback.widget.ListRow;
 import androidx.leanback.widget.ListRowPresenter;
@@ -26,8 +27,10 @@ import androidx.core.content.ContextCompat;
 import com.klaus.kmoviesapp.MovieDetailActivity;
 import com.klaus.kmoviesapp.R;
 import com.klaus.kmoviesapp.SettingsActivity;
+import com.klaus.kmoviesapp.adapters.MovieDiffCallback;
 import com.klaus.kmoviesapp.models.Movie;
 import com.klaus.kmoviesapp.presenters.CardPresenter;
+import com.klaus.kmoviesapp.scraper.HomeSnapshot;
 import com.klaus.kmoviesapp.scraper.ScraperTask;
 
 import java.util.List;
@@ -37,6 +40,21 @@ import java.util.List;
  */
 public class MainFragment extends BrowseSupportFragment {
     private static final String TAG = "MainFragment";
+    private static final int PLACEHOLDER_CARDS = 6;
+
+    // Refreshed rows only rebind the cards that changed
+    private static final DiffCallback<Movie> MOVIE_DIFF = new DiffCallback<Movie>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Movie oldItem, @NonNull Movie newItem) {
+            return MovieDiffCallback.sameTitle(oldItem, newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Movie oldItem, @NonNull Movie newItem) {
+            return MovieDiffCallback.sameCard(oldItem, newItem);
+        }
+    };
+
     private ArrayObjectAdapter mRowsAdapter;
 
     @Override
@@ -84,41 +102,80 @@ public class MainFragment extends BrowseSupportFragment {
     }
 
     private void loadContentRows() {
-        // Use ScraperTask to fetch content for different categories
-        // This is a simplified example, a real implementation would handle multiple categories
+        // Every row is reserved up front, in display order, with the cards saved on the last
+        // run or skeleton cards. All rows are fetched at once and each one is diffed in as
+        // soon as its data lands.
+        HomeSnapshot snapshot = HomeSnapshot.load();
 
         // Load "Coming This Week" (Home content)
-        loadCategoryRow(ScraperTask.ScraperType.HOME, "Coming This Week", 1);
+        loadCategoryRow(ScraperTask.ScraperType.HOME, "Coming This Week", 1, snapshot);
 
         // Load "Movies"
-        loadCategoryRow(ScraperTask.ScraperType.MOVIES, "Movies", 2);
+        loadCategoryRow(ScraperTask.ScraperType.MOVIES, "Movies", 2, snapshot);
 
         // Load "TV Shows"
-        loadCategoryRow(ScraperTask.ScraperType.TV_SHOWS, "TV Shows", 3);
+        loadCategoryRow(ScraperTask.ScraperType.TV_SHOWS, "TV Shows", 3, snapshot);
     }
 
-    private void loadCategoryRow(ScraperTask.ScraperType type, String title, int id) {
+    private void loadCategoryRow(ScraperTask.ScraperType type, String title, int id, HomeSnapshot snapshot) {
+        HeaderItem header = new HeaderItem(id, title);
+        List<Movie> saved = snapshot != null ? snapshot.getRow(title) : null;
+        final ArrayObjectAdapter rowItems;
+        if (saved != null && !saved.isEmpty()) {
+            rowItems = new ArrayObjectAdapter(new CardPresenter());
+            rowItems.addAll(0, saved);
+        } else {
+            rowItems = createPlaceholderAdapter();
+        }
+        final ListRow row = new ListRow(header, rowItems);
+        mRowsAdapter.add(row);
+
         new ScraperTask(type, new ScraperTask.ScraperCallback() {
             @Override
             public void onScrapingComplete(List<Movie> movies) {
                 if (isAdded()) {
-                    ArrayObjectAdapter listRowAdapter = new ArrayObjectAdapter(new CardPresenter());
-                    for (Movie movie : movies) {
-                        listRowAdapter.add(movie);
-                    }
-                    HeaderItem header = new HeaderItem(id, title);
-                    mRowsAdapter.add(new ListRow(header, listRowAdapter));
-                    mRowsAdapter.notifyArrayItemRangeChanged(id, 1);
+                    showRowItems(rowItems, movies);
+                    HomeSnapshot.saveRow(title, movies);
                 }
             }
 
             @Override
             public void onScrapingError(String error) {
                 if (isAdded()) {
+                    // Keep the row if it is already showing stored titles
+                    if (isPlaceholder(rowItems)) {
+                        mRowsAdapter.remove(row);
+                    }
                     Toast.makeText(requireContext(), "Error loading " + title + ": " + error, Toast.LENGTH_LONG).show();
                 }
             }
-        }).execute();
+        }).showCached(movies -> {
+            if (isAdded()) {
+                showRowItems(rowItems, movies);
+            }
+        }).bindTo(this).execute();
+    }
+
+    /**
+     * Diff new cards into a row in place, so the row keeps its slot and selection
+     */
+    private void showRowItems(ArrayObjectAdapter rowItems, List<Movie> movies) {
+        rowItems.setItems(movies, MOVIE_DIFF);
+    }
+
+    private boolean isPlaceholder(ArrayObjectAdapter rowItems) {
+        return rowItems.size() == 0 || ((Movie) rowItems.get(0)).getTitle() == null;
+    }
+
+    /**
+     * Row of empty cards shown while a row's data is loading
+     */
+    private ArrayObjectAdapter createPlaceholderAdapter() {
+        ArrayObjectAdapter placeholders = new ArrayObjectAdapter(new CardPresenter());
+        for (int i = 0; i < PLACEHOLDER_CARDS; i++) {
+            placeholders.add(new Movie());
+        }
+        return placeholders;
     }
 
     private void setupEventListeners() {
@@ -133,10 +190,12 @@ public class MainFragment extends BrowseSupportFragment {
 
             if (item instanceof Movie) {
                 Movie movie = (Movie) item;
+                if (movie.getTitle() == null) {
+                    // Skeleton card, nothing to open yet
+                    return;
+                }
                 Log.d(TAG, "Item: " + movie.getTitle());
-                Intent intent = new Intent(getActivity(), MovieDetailActivity.class);
-                intent.putExtra("movie", movie);
-                startActivity(intent);
+                startActivity(MovieDetailActivity.createIntent(requireContext(), movie));
             } else if (item instanceof String) {
                 // Handle settings or other custom clicks
                 if (item.equals("Settings")) {
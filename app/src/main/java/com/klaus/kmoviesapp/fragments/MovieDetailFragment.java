@@ -24,13 +24,16 @@ import androidx.leanback.widget.OnActionClickedListener;
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.request.target.CustomTarget;
 import com.bumptech.glide.request.transition.Transition;
+import com.klaus.kmoviesapp.MovieDetailActivity;
 import com.klaus.kmoviesapp.PlayerActivity;
 import com.klaus.kmoviesapp.R;
 import com.klaus.kmoviesapp.models.Movie;
 import com.klaus.kmoviesapp.presenters.CardPresenter;
 import com.klaus.kmoviesapp.presenters.DetailsDescriptionPresenter;
+import com.klaus.kmoviesapp.scraper.FMoviesScraper;
 import com.klaus.kmoviesapp.scraper.MovieDetailTask;
 import com.klaus.kmoviesapp.scraper.StreamUrlTask;
+import com.klaus.kmoviesapp.scraper.UnplayableCache;
 
 import java.util.Collections;
 import java.util.List;
@@ -47,15 +50,22 @@ public class MovieDetailFragment extends DetailsSupportFragment {
     private Movie mSelectedMovie;
     private DetailsSupportFragmentBackgroundController mBackgroundController;
     private ArrayObjectAdapter mAdapter;
+    private ArrayObjectAdapter mActionAdapter;
+    private Action mPlayAction;
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
         mBackgroundController = new DetailsSupportFragmentBackgroundController(this);
-        mSelectedMovie = (Movie) getActivity().getIntent().getSerializableExtra("movie");
+        Movie selected = MovieDetailActivity.readMovie(getActivity().getIntent());
+
+        if (selected != null) {
+            // The registry instance is shared with every row showing this title, so details
+            // and stream ids loaded here go into a private copy instead
+            mSelectedMovie = new Movie();
+            mSelectedMovie.copyMissingFrom(selected);
 
-        if (mSelectedMovie != null) {
             setupDetailsOverviewRow();
             setupDetailsOverviewRowPresenter();
             setupRelatedContentRow();
@@ -92,10 +102,12 @@ public class MovieDetailFragment extends DetailsSupportFragment {
                 });
 
         // Add actions
-        ArrayObjectAdapter actionAdapter = new ArrayObjectAdapter();
-        actionAdapter.add(new Action(ACTION_PLAY, getString(R.string.play), "Start Streaming"));
-        actionAdapter.add(new Action(ACTION_RELATED, getString(R.string.related_movies), "View Related"));
-        row.setActionsAdapter(actionAdapter);
+        mActionAdapter = new ArrayObjectAdapter();
+        mPlayAction = new Action(ACTION_PLAY, getString(R.string.play), "Start Streaming");
+        mActionAdapter.add(mPlayAction);
+        mActionAdapter.add(new Action(ACTION_RELATED, getString(R.string.related_movies), "View Related"));
+        row.setActionsAdapter(mActionAdapter);
+        updatePlayAction();
 
         // Load detailed info
         loadDetailedInfo(row);
@@ -143,9 +155,7 @@ public class MovieDetailFragment extends DetailsSupportFragment {
         setOnItemViewClickedListener((itemViewHolder, item, rowViewHolder, row) -> {
             if (item instanceof Movie) {
                 Movie movie = (Movie) item;
-                Intent intent = new Intent(getActivity(), MovieDetailActivity.class);
-                intent.putExtra("movie", movie);
-                startActivity(intent);
+                startActivity(MovieDetailActivity.createIntent(requireContext(), movie));
             }
         });
     }
@@ -157,7 +167,8 @@ public class MovieDetailFragment extends DetailsSupportFragment {
                 @Override
                 public void onDetailLoaded(Movie detailedMovie) {
                     if (isAdded()) {
-                        // Update movie object with detailed info
+                        // Update our copy with detailed info
+                        mSelectedMovie.setTmdbId(detailedMovie.getTmdbId() != null ? detailedMovie.getTmdbId() : mSelectedMovie.getTmdbId());
                         mSelectedMovie.setDescription(detailedMovie.getDescription() != null ? detailedMovie.getDescription() : mSelectedMovie.getDescription());
                         mSelectedMovie.setGenre(detailedMovie.getGenre() != null ? detailedMovie.getGenre() : mSelectedMovie.getGenre());
                         mSelectedMovie.setCountry(detailedMovie.getCountry() != null ? detailedMovie.getCountry() : mSelectedMovie.getCountry());
@@ -166,6 +177,7 @@ public class MovieDetailFragment extends DetailsSupportFragment {
 
                         // Update the row and background
                         row.setItem(mSelectedMovie);
+                        updatePlayAction();
                         mAdapter.notifyArrayItemRangeChanged(0, mAdapter.size());
                         updateBackground(mSelectedMovie.getBackdropUrl());
                     }
@@ -178,7 +190,7 @@ public class MovieDetailFragment extends DetailsSupportFragment {
                         Toast.makeText(requireContext(), "Error loading details: " + error, Toast.LENGTH_SHORT).show();
                     }
                 }
-            }).execute(mSelectedMovie.getDetailUrl());
+            }).bindTo(this).execute(mSelectedMovie.getDetailUrl());
         }
     }
 
@@ -195,7 +207,11 @@ public class MovieDetailFragment extends DetailsSupportFragment {
     }
 
     private void loadStreamUrl() {
-        if (mSelectedMovie.getDetailUrl() == null) {
+        // Streams are resolved (and cached) by TMDB id. If the detail page has not
+        // produced one yet, resolve from the detail URL instead.
+        String streamKey = mSelectedMovie.getTmdbId() != null
+                ? mSelectedMovie.getTmdbId() : mSelectedMovie.getDetailUrl();
+        if (streamKey == null) {
             Toast.makeText(requireContext(), "Stream URL not available", Toast.LENGTH_SHORT).show();
             return;
         }
@@ -204,8 +220,9 @@ public class MovieDetailFragment extends DetailsSupportFragment {
 
         new StreamUrlTask(new StreamUrlTask.StreamUrlCallback() {
             @Override
-            public void onStreamUrlExtracted(String streamUrl) {
+            public void onStreamUrlExtracted(String streamUrl, String tmdbId) {
                 if (isAdded()) {
+                    mSelectedMovie.setTmdbId(tmdbId);
                     mSelectedMovie.setStreamUrl(streamUrl);
                     playMovie(streamUrl);
                 }
@@ -214,15 +231,34 @@ public class MovieDetailFragment extends DetailsSupportFragment {
             @Override
             public void onStreamUrlError(String error) {
                 if (isAdded()) {
+                    updatePlayAction();
                     Toast.makeText(requireContext(), "Unable to load stream: " + error, Toast.LENGTH_LONG).show();
                 }
             }
-        }).execute(mSelectedMovie.getDetailUrl());
+        }).bindTo(this).execute(streamKey);
+    }
+
+    /**
+     * Mark the Play action unavailable while the title is in the unplayable cache
+     */
+    private void updatePlayAction() {
+        String streamKey = mSelectedMovie.getTmdbId() != null
+                ? mSelectedMovie.getTmdbId() : mSelectedMovie.getDetailUrl();
+        UnplayableCache.Reason reason = FMoviesScraper.getUnavailableReason(streamKey);
+        if (reason != null) {
+            mPlayAction.setLabel1("Unavailable");
+            mPlayAction.setLabel2(reason.message);
+        } else {
+            mPlayAction.setLabel1(getString(R.string.play));
+            mPlayAction.setLabel2("Start Streaming");
+        }
+        mActionAdapter.notifyArrayItemRangeChanged(mActionAdapter.indexOf(mPlayAction), 1);
     }
 
     private void playMovie(String streamUrl) {
         Intent intent = new Intent(getActivity(), PlayerActivity.class);
         intent.putExtra("stream_url", streamUrl);
+        intent.putExtra("tmdb_id", mSelectedMovie.getTmdbId());
         intent.putExtra("movie_title", mSelectedMovie.getTitle());
         startActivity(intent);
     }
@@ -1,30 +1,69 @@
 package com.klaus.kmoviesapp.models;
 
-import java.io.Serializable;
+import android.os.Parcel;
+import android.os.Parcelable;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-public class Movie implements Serializable {
+/**
+ * A title as shown on cards, plus its detail page fields.
+ * List screens only ever fill the card fields, so the detail fields live in a separate
+ * object that is allocated the first time one of them is set.
+ * Only the card fields are parcelled; screens get the live instance from MovieRegistry and
+ * the parcel is just the fallback after process death.
+ */
+public class Movie implements Parcelable {
     private String id;
+    private String tmdbId;
     private String title;
     private String year;
     private String rating;
     private String duration;
     private String quality;
     private String thumbnailUrl;
-    private String backdropUrl;
-    private String description;
     private String type; // "movie" or "tv"
     private String country;
     private String genre;
-    private String director;
     private String detailUrl;
-    private String streamUrl;
-    private String actors;
-    private String keywords;
-    private List<StreamSource> streamSources;
+    private Details details;
+
+    /**
+     * Fields that only the detail page provides and only the detail screen uses
+     */
+    private static class Details {
+        String backdropUrl;
+        String description;
+        String director;
+        String streamUrl;
+        String actors;
+        String keywords;
+        List<StreamSource> streamSources;
+
+        Details copy() {
+            Details copy = new Details();
+            copy.mergeFrom(this, true);
+            return copy;
+        }
+
+        /**
+         * Take the other copy's values, only where this one has none unless overwrite is set
+         */
+        void mergeFrom(Details other, boolean overwrite) {
+            if (other.backdropUrl != null && (overwrite || backdropUrl == null)) backdropUrl = other.backdropUrl;
+            if (other.description != null && (overwrite || description == null)) description = other.description;
+            if (other.director != null && (overwrite || director == null)) director = other.director;
+            if (other.streamUrl != null && (overwrite || streamUrl == null)) streamUrl = other.streamUrl;
+            if (other.actors != null && (overwrite || actors == null)) actors = other.actors;
+            if (other.keywords != null && (overwrite || keywords == null)) keywords = other.keywords;
+            if (other.streamSources != null && (overwrite || streamSources == null)) {
+                streamSources = new ArrayList<>(other.streamSources);
+            }
+        }
+    }
 
-    public static class StreamSource implements Serializable {
+    public static class StreamSource {
         private String label;
         private String url;
         private int index;
@@ -66,7 +105,6 @@ public class Movie implements Serializable {
     }
 
     public Movie() {
-        this.streamSources = new ArrayList<>();
     }
 
     public Movie(String id, String title, String year, String thumbnailUrl) {
@@ -74,7 +112,127 @@ public class Movie implements Serializable {
         this.title = title;
         this.year = year;
         this.thumbnailUrl = thumbnailUrl;
-        this.streamSources = new ArrayList<>();
+    }
+
+    protected Movie(Parcel in) {
+        id = in.readString();
+        tmdbId = in.readString();
+        title = in.readString();
+        year = in.readString();
+        rating = in.readString();
+        duration = in.readString();
+        quality = in.readString();
+        thumbnailUrl = in.readString();
+        type = in.readString();
+        country = in.readString();
+        genre = in.readString();
+        detailUrl = in.readString();
+    }
+
+    public static final Creator<Movie> CREATOR = new Creator<Movie>() {
+        @Override
+        public Movie createFromParcel(Parcel in) {
+            return new Movie(in);
+        }
+
+        @Override
+        public Movie[] newArray(int size) {
+            return new Movie[size];
+        }
+    };
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(id);
+        dest.writeString(tmdbId);
+        dest.writeString(title);
+        dest.writeString(year);
+        dest.writeString(rating);
+        dest.writeString(duration);
+        dest.writeString(quality);
+        dest.writeString(thumbnailUrl);
+        dest.writeString(type);
+        dest.writeString(country);
+        dest.writeString(genre);
+        dest.writeString(detailUrl);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    private Details details() {
+        if (details == null) {
+            details = new Details();
+        }
+        return details;
+    }
+
+    /**
+     * Whether the detail page fields have been filled in
+     */
+    public boolean hasDetails() {
+        return details != null;
+    }
+
+    /**
+     * Whether everything any card shows is the same as on another copy of the title
+     */
+    public boolean hasSameCard(Movie other) {
+        return equal(title, other.title)
+                && equal(year, other.year)
+                && equal(rating, other.rating)
+                && equal(quality, other.quality)
+                && equal(duration, other.duration)
+                && equal(thumbnailUrl, other.thumbnailUrl)
+                && equal(genre, other.genre)
+                && equal(type, other.type);
+    }
+
+    /**
+     * Fill the fields this copy lacks from another copy of the same title.
+     * Detail fields are copied, so the two never share mutable state.
+     */
+    public void copyMissingFrom(Movie other) {
+        if (id == null) id = other.id;
+        if (tmdbId == null) tmdbId = other.tmdbId;
+        if (title == null) title = other.title;
+        if (year == null) year = other.year;
+        if (rating == null) rating = other.rating;
+        if (duration == null) duration = other.duration;
+        if (quality == null) quality = other.quality;
+        if (thumbnailUrl == null) thumbnailUrl = other.thumbnailUrl;
+        if (type == null) type = other.type;
+        if (country == null) country = other.country;
+        if (genre == null) genre = other.genre;
+        if (detailUrl == null) detailUrl = other.detailUrl;
+        if (other.details != null) {
+            if (details == null) {
+                details = other.details.copy();
+            } else {
+                details.mergeFrom(other.details, false);
+            }
+        }
+    }
+
+    /**
+     * Take what a newer detail page scrape found, replacing older detail values.
+     * Card fields are left alone, so a shown card only changes through a list refresh.
+     */
+    public void applyDetailsFrom(Movie detailed) {
+        if (detailed.tmdbId != null) tmdbId = detailed.tmdbId;
+        if (detailed.details != null) {
+            if (details == null) {
+                details = detailed.details.copy();
+            } else {
+                details.mergeFrom(detailed.details, true);
+            }
+        }
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
     }
 
     // Getters and Setters
@@ -86,6 +244,14 @@ public class Movie implements Serializable {
         this.id = id;
     }
 
+    public String getTmdbId() {
+        return tmdbId;
+    }
+
+    public void setTmdbId(String tmdbId) {
+        this.tmdbId = tmdbId;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -135,19 +301,23 @@ public class Movie implements Serializable {
     }
 
     public String getBackdropUrl() {
-        return backdropUrl;
+        return details != null ? details.backdropUrl : null;
     }
 
     public void setBackdropUrl(String backdropUrl) {
-        this.backdropUrl = backdropUrl;
+        if (backdropUrl != null || details != null) {
+            details().backdropUrl = backdropUrl;
+        }
     }
 
     public String getDescription() {
-        return description;
+        return details != null ? details.description : null;
     }
 
     public void setDescription(String description) {
-        this.description = description;
+        if (description != null || details != null) {
+            details().description = description;
+        }
     }
 
     public String getType() {
@@ -175,11 +345,13 @@ public class Movie implements Serializable {
     }
 
     public String getDirector() {
-        return director;
+        return details != null ? details.director : null;
     }
 
     public void setDirector(String director) {
-        this.director = director;
+        if (director != null || details != null) {
+            details().director = director;
+        }
     }
 
     public String getDetailUrl() {
@@ -191,42 +363,52 @@ public class Movie implements Serializable {
     }
 
     public String getStreamUrl() {
-        return streamUrl;
+        return details != null ? details.streamUrl : null;
     }
 
     public void setStreamUrl(String streamUrl) {
-        this.streamUrl = streamUrl;
+        if (streamUrl != null || details != null) {
+            details().streamUrl = streamUrl;
+        }
     }
 
     public String getActors() {
-        return actors;
+        return details != null ? details.actors : null;
     }
 
     public void setActors(String actors) {
-        this.actors = actors;
+        if (actors != null || details != null) {
+            details().actors = actors;
+        }
     }
 
     public String getKeywords() {
-        return keywords;
+        return details != null ? details.keywords : null;
     }
 
     public void setKeywords(String keywords) {
-        this.keywords = keywords;
+        if (keywords != null || details != null) {
+            details().keywords = keywords;
+        }
     }
 
     public List<StreamSource> getStreamSources() {
-        return streamSources;
+        if (details == null || details.streamSources == null) {
+            return Collections.emptyList();
+        }
+        return details.streamSources;
     }
 
     public void setStreamSources(List<StreamSource> streamSources) {
-        this.streamSources = streamSources;
+        details().streamSources = streamSources;
     }
 
     public void addStreamSource(String label, String url, int index) {
-        if (this.streamSources == null) {
-            this.streamSources = new ArrayList<>();
+        Details details = details();
+        if (details.streamSources == null) {
+            details.streamSources = new ArrayList<>();
         }
-        this.streamSources.add(new StreamSource(label, url, index));
+        details.streamSources.add(new StreamSource(label, url, index));
     }
 
     @Override
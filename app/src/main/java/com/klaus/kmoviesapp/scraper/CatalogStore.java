@@ -0,0 +1,439 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import com.klaus.kmoviesapp.models.Movie;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-device SQLite catalog of every title the scraper has seen, keyed by detail URL.
+ * Scraped pages are upserted as they arrive and remembered as ordered lists keyed by
+ * page URL, so a screen can render its last known contents before the network answers.
+ * Titles can also be queried by type, year, genre, country and rating, a page at a time.
+ */
+public class CatalogStore {
+    private static final String TAG = "CatalogStore";
+    private static final String DB_NAME = "catalog.db";
+    private static final int DB_VERSION = 1;
+
+    private static final String MOVIES = "movies";
+    private static final String LISTS = "lists";
+    private static final String GENRES = "movie_genres";
+
+    // Movie fields stored as plain text columns, in Movie getter order
+    private static final String[] TEXT_COLUMNS = {
+            "id", "tmdb_id", "title", "year", "rating", "duration", "quality", "thumbnail_url",
+            "backdrop_url", "description", "type", "country", "genre", "director", "actors", "keywords"
+    };
+
+    private static volatile Helper helper;
+
+    /**
+     * Sort orders for {@link #query(Query, int, int)}
+     */
+    public enum Order {
+        RECENT("updated_at DESC"),
+        RATING("rating_value DESC"),
+        YEAR("year DESC"),
+        TITLE("title COLLATE NOCASE ASC");
+
+        final String sql;
+
+        Order(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * Filters for a catalog query. Unset filters match everything.
+     */
+    public static class Query {
+        final String type;
+        final String year;
+        final String genre;
+        final String country;
+        final double minRating;
+        final Order order;
+
+        private Query(Builder builder) {
+            this.type = builder.type;
+            this.year = builder.year;
+            this.genre = builder.genre;
+            this.country = builder.country;
+            this.minRating = builder.minRating;
+            this.order = builder.order;
+        }
+
+        public static class Builder {
+            private String type;
+            private String year;
+            private String genre;
+            private String country;
+            private double minRating;
+            private Order order = Order.RECENT;
+
+            /**
+             * "movie" or "tv"
+             */
+            public Builder type(String type) {
+                this.type = type;
+                return this;
+            }
+
+            public Builder year(String year) {
+                this.year = year;
+                return this;
+            }
+
+            /**
+             * Matches titles listing this genre among theirs, ignoring case
+             */
+            public Builder genre(String genre) {
+                this.genre = genre;
+                return this;
+            }
+
+            /**
+             * Matches titles from this country, ignoring case
+             */
+            public Builder country(String country) {
+                this.country = country;
+                return this;
+            }
+
+            public Builder minRating(double minRating) {
+                this.minRating = minRating;
+                return this;
+            }
+
+            public Builder orderBy(Order order) {
+                this.order = order;
+                return this;
+            }
+
+            public Query build() {
+                return new Query(this);
+            }
+        }
+    }
+
+    private static class Helper extends SQLiteOpenHelper {
+        Helper(Context context) {
+            super(context, DB_NAME, null, DB_VERSION);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            StringBuilder columns = new StringBuilder("detail_url TEXT PRIMARY KEY");
+            for (String column : TEXT_COLUMNS) {
+                columns.append(", ").append(column).append(" TEXT");
+            }
+            columns.append(", rating_value REAL, updated_at INTEGER NOT NULL");
+            db.execSQL("CREATE TABLE " + MOVIES + " (" + columns + ")");
+
+            db.execSQL("CREATE INDEX movies_type ON " + MOVIES + " (type)");
+            db.execSQL("CREATE INDEX movies_year ON " + MOVIES + " (year)");
+            db.execSQL("CREATE INDEX movies_country ON " + MOVIES + " (country COLLATE NOCASE)");
+            db.execSQL("CREATE INDEX movies_rating ON " + MOVIES + " (rating_value)");
+
+            // One row per genre a title lists, so a genre filter is an index lookup
+            db.execSQL("CREATE TABLE " + GENRES + " (genre TEXT NOT NULL COLLATE NOCASE,"
+                    + " detail_url TEXT NOT NULL, PRIMARY KEY (genre, detail_url))");
+            db.execSQL("CREATE INDEX movie_genres_title ON " + GENRES + " (detail_url)");
+
+            // Ordered membership of a scraped page, e.g. a category's grid
+            db.execSQL("CREATE TABLE " + LISTS + " (list_key TEXT NOT NULL, position INTEGER NOT NULL,"
+                    + " detail_url TEXT NOT NULL, PRIMARY KEY (list_key, position))");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            // Everything here can be scraped again, so start over
+            db.execSQL("DROP TABLE IF EXISTS " + MOVIES);
+            db.execSQL("DROP TABLE IF EXISTS " + LISTS);
+            db.execSQL("DROP TABLE IF EXISTS " + GENRES);
+            onCreate(db);
+        }
+    }
+
+    private CatalogStore() {
+    }
+
+    /**
+     * Open the catalog database. Reads return nothing and writes are dropped until then.
+     */
+    public static void init(Context context) {
+        helper = new Helper(context.getApplicationContext());
+    }
+
+    /**
+     * Upsert the titles of a scraped page and remember them, in order, as that page's list
+     */
+    public static void saveList(String listKey, List<Movie> movies) {
+        if (helper == null || listKey == null || movies == null || movies.isEmpty()) {
+            return;
+        }
+
+        try {
+            SQLiteDatabase db = helper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                long now = System.currentTimeMillis();
+                db.delete(LISTS, "list_key = ?", new String[]{listKey});
+
+                int position = 0;
+                ContentValues entry = new ContentValues();
+                for (Movie movie : movies) {
+                    if (movie.getDetailUrl() == null) {
+                        continue;
+                    }
+                    upsert(db, movie, now);
+
+                    entry.put("list_key", listKey);
+                    entry.put("position", position++);
+                    entry.put("detail_url", movie.getDetailUrl());
+                    db.insert(LISTS, null, entry);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving list " + listKey + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Upsert one title, e.g. after its detail page has been scraped
+     */
+    public static void saveMovie(Movie movie) {
+        if (helper == null || movie == null || movie.getDetailUrl() == null) {
+            return;
+        }
+
+        try {
+            SQLiteDatabase db = helper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                upsert(db, movie, System.currentTimeMillis());
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving " + movie.getDetailUrl() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Merge a title into its row. Fields the movie does not carry keep their stored value,
+     * so a card scraped from a list never erases what its detail page added.
+     */
+    private static void upsert(SQLiteDatabase db, Movie movie, long now) {
+        ContentValues values = new ContentValues();
+        String[] fields = fieldsOf(movie);
+        for (int i = 0; i < TEXT_COLUMNS.length; i++) {
+            if (fields[i] != null) {
+                values.put(TEXT_COLUMNS[i], fields[i]);
+            }
+        }
+        Double rating = parseRating(movie.getRating());
+        if (rating != null) {
+            values.put("rating_value", rating);
+        }
+        values.put("updated_at", now);
+
+        String[] key = {movie.getDetailUrl()};
+        if (db.update(MOVIES, values, "detail_url = ?", key) == 0) {
+            values.put("detail_url", movie.getDetailUrl());
+            db.insert(MOVIES, null, values);
+        }
+
+        if (movie.getGenre() != null) {
+            db.delete(GENRES, "detail_url = ?", key);
+            ContentValues entry = new ContentValues();
+            for (String genre : movie.getGenre().split(",")) {
+                genre = genre.trim();
+                if (!genre.isEmpty()) {
+                    entry.put("genre", genre);
+                    entry.put("detail_url", movie.getDetailUrl());
+                    db.insertWithOnConflict(GENRES, null, entry, SQLiteDatabase.CONFLICT_IGNORE);
+                }
+            }
+        }
+    }
+
+    /**
+     * A page of a stored list, in the order it was scraped
+     */
+    public static List<Movie> loadList(String listKey, int offset, int limit) {
+        List<Movie> movies = new ArrayList<>();
+        if (helper == null || listKey == null) {
+            return movies;
+        }
+
+        String sql = "SELECT m.* FROM " + LISTS + " l JOIN " + MOVIES + " m ON m.detail_url = l.detail_url"
+                + " WHERE l.list_key = ? ORDER BY l.position LIMIT " + limit + " OFFSET " + offset;
+        try (Cursor cursor = helper.getReadableDatabase().rawQuery(sql, new String[]{listKey})) {
+            readMovies(cursor, movies);
+        } catch (Exception e) {
+            Log.e(TAG, "Error loading list " + listKey + ": " + e.getMessage());
+        }
+        return movies;
+    }
+
+    /**
+     * A page of every stored title matching the query
+     */
+    public static List<Movie> query(Query query, int offset, int limit) {
+        List<Movie> movies = new ArrayList<>();
+        if (helper == null) {
+            return movies;
+        }
+
+        List<String> args = new ArrayList<>();
+        String where = whereClause(query, args);
+        try (Cursor cursor = helper.getReadableDatabase().query(MOVIES, null, where,
+                args.toArray(new String[0]), null, null, query.order.sql,
+                offset + "," + limit)) {
+            readMovies(cursor, movies);
+        } catch (Exception e) {
+            Log.e(TAG, "Error querying catalog: " + e.getMessage());
+        }
+        return movies;
+    }
+
+    /**
+     * Number of stored titles matching the query, for sizing a paged list
+     */
+    public static int count(Query query) {
+        if (helper == null) {
+            return 0;
+        }
+
+        List<String> args = new ArrayList<>();
+        String where = whereClause(query, args);
+        String sql = "SELECT COUNT(*) FROM " + MOVIES + (where != null ? " WHERE " + where : "");
+        try (Cursor cursor = helper.getReadableDatabase().rawQuery(sql, args.toArray(new String[0]))) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        } catch (Exception e) {
+            Log.e(TAG, "Error counting catalog: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static String whereClause(Query query, List<String> args) {
+        List<String> clauses = new ArrayList<>();
+        if (query.type != null) {
+            clauses.add("type = ?");
+            args.add(query.type);
+        }
+        if (query.year != null) {
+            clauses.add("year = ?");
+            args.add(query.year);
+        }
+        if (query.genre != null) {
+            clauses.add("detail_url IN (SELECT detail_url FROM " + GENRES + " WHERE genre = ?)");
+            args.add(query.genre);
+        }
+        if (query.country != null) {
+            clauses.add("country = ? COLLATE NOCASE");
+            args.add(query.country);
+        }
+        if (query.minRating > 0) {
+            clauses.add("rating_value >= ?");
+            args.add(String.valueOf(query.minRating));
+        }
+
+        if (clauses.isEmpty()) {
+            return null;
+        }
+        StringBuilder where = new StringBuilder();
+        for (String clause : clauses) {
+            if (where.length() > 0) where.append(" AND ");
+            where.append(clause);
+        }
+        return where.toString();
+    }
+
+    private static void readMovies(Cursor cursor, List<Movie> movies) {
+        int detailUrlColumn = cursor.getColumnIndexOrThrow("detail_url");
+        int[] columns = new int[TEXT_COLUMNS.length];
+        for (int i = 0; i < TEXT_COLUMNS.length; i++) {
+            columns[i] = cursor.getColumnIndexOrThrow(TEXT_COLUMNS[i]);
+        }
+
+        while (cursor.moveToNext()) {
+            Movie movie = new Movie();
+            movie.setDetailUrl(cursor.getString(detailUrlColumn));
+            String[] fields = new String[TEXT_COLUMNS.length];
+            for (int i = 0; i < columns.length; i++) {
+                fields[i] = cursor.getString(columns[i]);
+            }
+            applyFields(movie, fields);
+            movies.add(MovieRegistry.canonical(movie));
+        }
+    }
+
+    /**
+     * Movie fields in TEXT_COLUMNS order
+     */
+    private static String[] fieldsOf(Movie movie) {
+        return new String[]{
+                movie.getId(), movie.getTmdbId(), movie.getTitle(), movie.getYear(), movie.getRating(),
+                movie.getDuration(), movie.getQuality(), movie.getThumbnailUrl(), movie.getBackdropUrl(),
+                movie.getDescription(), movie.getType(), movie.getCountry(), movie.getGenre(),
+                movie.getDirector(), movie.getActors(), movie.getKeywords()
+        };
+    }
+
+    /**
+     * Card fields only. Detail fields are stored for queries but left to the detail page,
+     * so titles read for a list never allocate detail storage.
+     */
+    private static void applyFields(Movie movie, String[] fields) {
+        movie.setId(fields[0]);
+        movie.setTmdbId(fields[1]);
+        movie.setTitle(fields[2]);
+        movie.setYear(fields[3]);
+        movie.setRating(fields[4]);
+        movie.setDuration(fields[5]);
+        movie.setQuality(fields[6]);
+        movie.setThumbnailUrl(fields[7]);
+        movie.setType(fields[10]);
+        movie.setCountry(fields[11]);
+        movie.setGenre(fields[12]);
+    }
+
+    /**
+     * Numeric rating for sorting and filtering, e.g. "7.8" or "IMDb 7.8/10"
+     */
+    private static Double parseRating(String rating) {
+        if (rating == null) {
+            return null;
+        }
+        int start = 0;
+        while (start < rating.length() && !Character.isDigit(rating.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < rating.length() && (Character.isDigit(rating.charAt(end)) || rating.charAt(end) == '.')) {
+            end++;
+        }
+        if (end == start) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(rating.substring(start, end));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.klaus.kmoviesapp.scraper;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * End-to-end time budget for one user action.
+ * Stages of a {@link StageGraph} run with the graph's deadline installed for their thread,
+ * and every network call made from there caps its timeout to the time that is left.
+ */
+public class Deadline {
+    private static final ThreadLocal<Deadline> current = new ThreadLocal<>();
+
+    private final long expiresAtNs;
+
+    private Deadline(long expiresAtNs) {
+        this.expiresAtNs = expiresAtNs;
+    }
+
+    public static Deadline after(long budgetMs) {
+        return new Deadline(System.nanoTime() + budgetMs * 1000000);
+    }
+
+    /**
+     * The deadline installed for this thread, or null outside of a budgeted action
+     */
+    public static Deadline current() {
+        return current.get();
+    }
+
+    public long remainingMs() {
+        return Math.max(0, (expiresAtNs - System.nanoTime()) / 1000000);
+    }
+
+    public boolean isExpired() {
+        return System.nanoTime() >= expiresAtNs;
+    }
+
+    public void check() throws ExceededException {
+        if (isExpired()) {
+            throw new ExceededException();
+        }
+    }
+
+    /**
+     * Cap a timeout to what is left of the current thread's deadline, if there is one
+     */
+    public static long cap(long timeoutMs) throws ExceededException {
+        Deadline deadline = current();
+        if (deadline == null) {
+            return timeoutMs;
+        }
+        deadline.check();
+        return Math.min(timeoutMs, deadline.remainingMs());
+    }
+
+    /**
+     * Run work with this deadline installed for the calling thread
+     */
+    public <T> T run(Callable<T> work) throws Exception {
+        Deadline previous = current.get();
+        current.set(this);
+        try {
+            return work.call();
+        } finally {
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    /**
+     * Thrown when an action runs out of its time budget
+     */
+    public static class ExceededException extends IOException {
+        public ExceededException() {
+            super("Deadline exceeded");
+        }
+    }
+}
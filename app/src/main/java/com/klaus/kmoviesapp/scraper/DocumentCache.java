@@ -0,0 +1,82 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.util.LruCache;
+
+import org.jsoup.nodes.Document;
+
+import java.io.IOException;
+
+/**
+ * Short-lived cache of parsed catalog pages shared by every scraper entry point,
+ * so several rows extracted from the same page cost a single fetch.
+ * Concurrent requests for the same URL share one in-flight fetch instead of repeating it.
+ */
+public class DocumentCache {
+    private static final int MAX_DOCUMENTS = 4;
+    private static final long TTL_MS = 2 * 60 * 1000; // 2 minutes
+
+    private static final LruCache<String, Entry> cache = new LruCache<>(MAX_DOCUMENTS);
+    private static final SingleFlight<String, Document> fetches = new SingleFlight<>("pages");
+
+    private static class Entry {
+        final Document document;
+        final long fetchedAt;
+
+        Entry(Document document, long fetchedAt) {
+            this.document = document;
+            this.fetchedAt = fetchedAt;
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() - fetchedAt < TTL_MS;
+        }
+    }
+
+    private DocumentCache() {
+    }
+
+    /**
+     * Get the parsed page for a URL, fetching it if it is not cached or too old.
+     * Callers must treat the returned document as read-only.
+     */
+    public static Document get(String url) throws IOException {
+        Entry entry = cache.get(url);
+        if (entry != null && entry.isFresh()) {
+            return entry.document;
+        }
+
+        try {
+            return fetches.run(url, () -> {
+                // An earlier flight may have finished just before this one started
+                Entry fresh = cache.get(url);
+                if (fresh != null && fresh.isFresh()) {
+                    return fresh.document;
+                }
+
+                Document document = ScraperHttpClient.fetchDocument(url);
+                cache.put(url, new Entry(document, System.currentTimeMillis()));
+                return document;
+            });
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * The cached page for a URL if it is still fresh, without fetching
+     */
+    public static Document peek(String url) {
+        Entry entry = cache.get(url);
+        return entry != null && entry.isFresh() ? entry.document : null;
+    }
+
+    public static void invalidate(String url) {
+        cache.remove(url);
+    }
+
+    public static String getStatsSummary() {
+        return fetches.getStatsSummary();
+    }
+}
@@ -0,0 +1,185 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Latency tracking, adaptive timeout and circuit breaker for one remote dependency.
+ * The timeout follows the observed p99 instead of a fixed value. After several failures
+ * in a row the breaker opens and calls fail immediately until a cooldown has passed;
+ * then a single trial call decides whether it closes again or the cooldown doubles.
+ */
+public class Endpoint {
+    private static final String TAG = "Endpoint";
+
+    private static final int MIN_SAMPLES = 10;
+    private static final long DEFAULT_TIMEOUT_MS = 10000; // Until there is enough data
+    private static final long MIN_TIMEOUT_MS = 1500;
+    private static final long MAX_TIMEOUT_MS = 10000;
+    private static final int TIMEOUT_P99_MULTIPLIER = 2;
+
+    private static final int FAILURES_TO_OPEN = 3;
+    private static final long BASE_COOLDOWN_MS = 15 * 1000; // 15 seconds
+    private static final long MAX_COOLDOWN_MS = 5 * 60 * 1000; // 5 minutes
+
+    private static final Map<String, Endpoint> registry = new LinkedHashMap<>();
+
+    // Resolver APIs, named because they share hosts or carry ids in their paths
+    public static final Endpoint TOKEN = named("token");
+    public static final Endpoint PLAYER = named("player");
+    public static final Endpoint DECRYPT = named("decrypt");
+
+    private enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    public final String name;
+    public final LatencyHistogram latency = new LatencyHistogram();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long cooldownMs = BASE_COOLDOWN_MS;
+    private long openedAt;
+
+    private Endpoint(String name) {
+        this.name = name;
+    }
+
+    private static synchronized Endpoint named(String name) {
+        Endpoint endpoint = registry.get(name);
+        if (endpoint == null) {
+            endpoint = new Endpoint(name);
+            registry.put(name, endpoint);
+        }
+        return endpoint;
+    }
+
+    /**
+     * The endpoint for an HTML page, one per host
+     */
+    public static Endpoint forPage(String url) {
+        HttpUrl parsed = HttpUrl.parse(url);
+        return named(parsed != null ? parsed.host() : url);
+    }
+
+    /**
+     * Timeout derived from recent latencies, capped by the current deadline
+     */
+    public long timeoutMs() throws Deadline.ExceededException {
+        return Deadline.cap(adaptiveTimeoutMs());
+    }
+
+    /**
+     * Timeout derived from recent latencies alone, ignoring any deadline
+     */
+    public long adaptiveTimeoutMs() {
+        long timeout = DEFAULT_TIMEOUT_MS;
+        if (latency.getCount() >= MIN_SAMPLES) {
+            timeout = Math.max(MIN_TIMEOUT_MS,
+                    Math.min(MAX_TIMEOUT_MS, latency.percentile(0.99) * TIMEOUT_P99_MULTIPLIER));
+        }
+        return timeout;
+    }
+
+    /**
+     * Whether a call may go out now. While open, only one trial call is let through per cooldown.
+     */
+    public synchronized boolean isAvailable() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= cooldownMs) {
+            state = State.HALF_OPEN;
+            Log.d(TAG, name + " half-open, sending a trial call");
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Whether calls are currently being refused or limited to a trial, without changing state
+     */
+    public synchronized boolean isCircuitOpen() {
+        return state != State.CLOSED;
+    }
+
+    public void checkAvailable() throws CircuitOpenException {
+        if (!isAvailable()) {
+            throw new CircuitOpenException(name);
+        }
+    }
+
+    public synchronized void onSuccess(long latencyMs) {
+        latency.record(latencyMs);
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            Log.d(TAG, name + " recovered, closing circuit");
+        }
+        state = State.CLOSED;
+        cooldownMs = BASE_COOLDOWN_MS;
+    }
+
+    public synchronized void onFailure() {
+        latency.recordFailure();
+        consecutiveFailures++;
+
+        if (state == State.HALF_OPEN) {
+            cooldownMs = Math.min(MAX_COOLDOWN_MS, cooldownMs * 2);
+            open();
+        } else if (state == State.CLOSED && consecutiveFailures >= FAILURES_TO_OPEN) {
+            open();
+        }
+    }
+
+    /**
+     * A call was cancelled before it could show whether the endpoint works. A pending trial
+     * is handed to the next caller instead of leaving the circuit half-open.
+     */
+    public synchronized void onAbandoned() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        Log.w(TAG, name + " failing, circuit open for " + cooldownMs / 1000 + "s");
+    }
+
+    public static synchronized List<Endpoint> getEndpoints() {
+        return new ArrayList<>(registry.values());
+    }
+
+    public static String getStatsSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Endpoint endpoint : getEndpoints()) {
+            String timeout;
+            try {
+                timeout = String.valueOf(endpoint.timeoutMs());
+            } catch (Deadline.ExceededException e) {
+                timeout = "0";
+            }
+            synchronized (endpoint) {
+                summary.append(endpoint.name).append(" [").append(endpoint.state).append(", timeout ")
+                        .append(timeout).append("ms]: ").append(endpoint.latency.getSummary()).append('\n');
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Thrown instead of calling an endpoint whose circuit is open
+     */
+    public static class CircuitOpenException extends IOException {
+        public CircuitOpenException(String endpoint) {
+            super("Circuit open for " + endpoint);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.klaus.kmoviesapp.scraper;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Collector;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.QueryParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Declarative field extraction for scraped HTML.
+ * Each field is a selector plus what to read from the matching element (text, an attribute,
+ * or the element itself), optionally narrowed by a regex. Selectors are compiled once when
+ * the spec is built, and {@link #extract(Element)} fills every field in a single traversal
+ * of the root's subtree instead of one selectFirst/select walk per field.
+ */
+public class ExtractionSpec {
+    private static final String TEXT = null;
+
+    // Empty root used to release evaluator memos after a traversal
+    private static final Element RESET_ROOT = new Element("div");
+
+    private final List<Rule> rules;
+    private final List<Evaluator> evaluators;
+    private final boolean hasCollectors;
+
+    private ExtractionSpec(List<Rule> rules, List<Evaluator> evaluators) {
+        this.rules = rules;
+        this.evaluators = evaluators;
+        boolean collectors = false;
+        for (Rule rule : rules) {
+            collectors |= rule.collectAll;
+        }
+        this.hasCollectors = collectors;
+    }
+
+    private static class Rule {
+        final String field;
+        final Evaluator evaluator;
+        final String attribute; // null reads the element's text
+        final Pattern pattern;
+        final boolean collectAll;
+        final boolean keepElement;
+
+        Rule(String field, Evaluator evaluator, String attribute, Pattern pattern,
+             boolean collectAll, boolean keepElement) {
+            this.field = field;
+            this.evaluator = evaluator;
+            this.attribute = attribute;
+            this.pattern = pattern;
+            this.collectAll = collectAll;
+            this.keepElement = keepElement;
+        }
+
+        String read(Element element) {
+            String value = attribute == null ? element.text().trim() : element.attr(attribute);
+            if (pattern == null) {
+                return value;
+            }
+            Matcher matcher = pattern.matcher(value);
+            if (!matcher.find()) {
+                return null;
+            }
+            return matcher.groupCount() > 0 ? matcher.group(1) : matcher.group();
+        }
+    }
+
+    /**
+     * Extracted values for one root element
+     */
+    public static class Result {
+        private final Map<String, String> values = new HashMap<>();
+        private final Map<String, List<String>> lists = new HashMap<>();
+        private final Map<String, List<Element>> elements = new HashMap<>();
+
+        /**
+         * Value of the first match in document order, or null if nothing matched
+         */
+        public String get(String field) {
+            return values.get(field);
+        }
+
+        /**
+         * First match, or the fallback field's first match when it is missing or empty
+         */
+        public String getOrFallback(String field, String fallbackField) {
+            String value = values.get(field);
+            return value == null || value.isEmpty() ? values.get(fallbackField) : value;
+        }
+
+        public List<String> getAll(String field) {
+            List<String> list = lists.get(field);
+            return list != null ? list : Collections.<String>emptyList();
+        }
+
+        public Element getElement(String field) {
+            List<Element> list = elements.get(field);
+            return list != null && !list.isEmpty() ? list.get(0) : null;
+        }
+
+        public List<Element> getElements(String field) {
+            List<Element> list = elements.get(field);
+            return list != null ? list : Collections.<Element>emptyList();
+        }
+    }
+
+    /**
+     * Fill every field from one depth-first traversal of root's subtree (root included).
+     * Stops early once every single-value field is filled and no list fields exist.
+     */
+    public Result extract(final Element root) {
+        final Result result = new Result();
+        final int[] remaining = {rules.size()};
+
+        NodeTraversor.filter(new NodeFilter() {
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (!(node instanceof Element)) {
+                    return FilterResult.CONTINUE;
+                }
+                Element element = (Element) node;
+
+                for (Rule rule : rules) {
+                    if (!rule.collectAll && isFilled(result, rule)) {
+                        continue;
+                    }
+                    if (!rule.evaluator.matches(root, element)) {
+                        continue;
+                    }
+                    record(result, rule, element);
+                    if (!rule.collectAll) {
+                        remaining[0]--;
+                    }
+                }
+
+                if (!hasCollectors && remaining[0] == 0) {
+                    return FilterResult.STOP;
+                }
+                return FilterResult.CONTINUE;
+            }
+
+            @Override
+            public FilterResult tail(Node node, int depth) {
+                return FilterResult.CONTINUE;
+            }
+        }, root);
+
+        // Structural evaluators memoize matches per root. Element.select() clears them when it
+        // finishes; going through Collector does the same so no document stays referenced.
+        for (Evaluator evaluator : evaluators) {
+            Collector.collect(evaluator, RESET_ROOT);
+        }
+
+        return result;
+    }
+
+    private static boolean isFilled(Result result, Rule rule) {
+        return rule.keepElement ? result.elements.containsKey(rule.field) : result.values.containsKey(rule.field);
+    }
+
+    private static void record(Result result, Rule rule, Element element) {
+        if (rule.keepElement) {
+            List<Element> list = result.elements.get(rule.field);
+            if (list == null) {
+                list = new ArrayList<>();
+                result.elements.put(rule.field, list);
+            }
+            list.add(element);
+            return;
+        }
+
+        String value = rule.read(element);
+        if (rule.collectAll) {
+            List<String> list = result.lists.get(rule.field);
+            if (list == null) {
+                list = new ArrayList<>();
+                result.lists.put(rule.field, list);
+            }
+            if (value != null) {
+                list.add(value);
+            }
+        } else {
+            // Like selectFirst: the first matching element fills the field, even with no value
+            result.values.put(rule.field, value);
+        }
+    }
+
+    public static class Builder {
+        private final List<Rule> rules = new ArrayList<>();
+        private final Map<String, Evaluator> compiled = new HashMap<>();
+
+        /**
+         * Trimmed text of the first element matching the selector
+         */
+        public Builder text(String field, String selector) {
+            return add(field, selector, TEXT, null, false, false);
+        }
+
+        /**
+         * Attribute of the first element matching the selector
+         */
+        public Builder attr(String field, String selector, String attribute) {
+            return add(field, selector, attribute, null, false, false);
+        }
+
+        /**
+         * Group 1 (or the whole match) of a regex applied to the first match's attribute
+         */
+        public Builder attrMatch(String field, String selector, String attribute, String regex) {
+            return add(field, selector, attribute, Pattern.compile(regex), false, false);
+        }
+
+        /**
+         * Trimmed text of every element matching the selector, in document order
+         */
+        public Builder allText(String field, String selector) {
+            return add(field, selector, TEXT, null, true, false);
+        }
+
+        /**
+         * The first element matching the selector, for structure a flat field can't express
+         */
+        public Builder element(String field, String selector) {
+            return add(field, selector, TEXT, null, false, true);
+        }
+
+        /**
+         * Every element matching the selector, in document order
+         */
+        public Builder allElements(String field, String selector) {
+            return add(field, selector, TEXT, null, true, true);
+        }
+
+        private Builder add(String field, String selector, String attribute, Pattern pattern,
+                            boolean collectAll, boolean keepElement) {
+            // Fields sharing a selector share one compiled evaluator
+            Evaluator evaluator = compiled.get(selector);
+            if (evaluator == null) {
+                evaluator = QueryParser.parse(selector);
+                compiled.put(selector, evaluator);
+            }
+            rules.add(new Rule(field, evaluator, attribute, pattern, collectAll, keepElement));
+            return this;
+        }
+
+        public ExtractionSpec build() {
+            return new ExtractionSpec(new ArrayList<>(rules), new ArrayList<>(compiled.values()));
+        }
+    }
+}
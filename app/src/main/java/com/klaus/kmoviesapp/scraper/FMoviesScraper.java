@@ -1,107 +1,185 @@
 package com.klaus.kmoviesapp.scraper;
 
-import android.util.Base64;
+import android.content.Context;
 import android.util.Log;
 
 import com.klaus.kmoviesapp.models.Movie;
 
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
+import org.json.JSONException;
+import org.json.JSONObject;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
 import org.jsoup.select.Elements;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.security.SecureRandom;
-import java.security.cert.X509Certificate;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSocketFactory;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
-
-import org.json.JSONArray;
-import org.json.JSONObject;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import okhttp3.HttpUrl;
+import okhttp3.Response;
 
 public class FMoviesScraper {
     private static final String TAG = "FMoviesScraper";
-    private static final String BASE_URL2 = "https://ww4.fmovies.co";
-    private static final String BASE_URL = "https://popcornmovies.org";
-    private static final int TIMEOUT = 10000; // 10 seconds
+    static final String BASE_URL2 = "https://ww4.fmovies.co";
+    static final String BASE_URL = "https://popcornmovies.org";
+    static final String HOME_URL = BASE_URL + "/home";
+    static final String MOVIES_URL = BASE_URL + "/movie";
+    static final String TV_SHOWS_URL = BASE_URL + "/tv-series";
+    static final String TOP_IMDB_URL = BASE_URL + "/top-imdb";
+    private static final String CARD_SELECTOR = "div.aspect-poster.group.relative";
+    private static final String TOP_WEEK_SELECTOR = "div.rounded-xl div.flex.space-x-8";
+    private static final int FIRST_BATCH_SIZE = 6; // About one row of posters
+    private static final int BATCH_SIZE = 12;
+    private static final byte[] SNAPSHOT_MARKER = "wire:snapshot=\"".getBytes(Charset.forName("US-ASCII"));
+    private static final int MAX_SNAPSHOTS_PROBED = 4;
+
+    // Fields read from the resolver responses; nothing else in them is materialized
+    private static final String PLAYER_FILE_PATH = "data.sources[0].file";
+    private static final String PLAYER_TRACKS_PATH = "data.tracks";
+    private static final JsonPaths PLAYER_PATHS = new JsonPaths(PLAYER_FILE_PATH, PLAYER_TRACKS_PATH);
+    private static final JsonPaths DECRYPT_PATHS = new JsonPaths("result");
+
+    // Concurrent identical calls share one execution. Streams are keyed by tmdbId from every entry point.
+    private static final SingleFlight<String, Movie> detailFlights = new SingleFlight<>("details");
+    private static final SingleFlight<String, PlaybackIds> playbackIdFlights = new SingleFlight<>("playback-ids");
+    private static final SingleFlight<String, StreamResult> streamFlights = new SingleFlight<>("streams");
+
+    // End-to-end budget for resolving a stream after the user presses Play
+    private static final long RESOLVE_BUDGET_MS = 20000;
+
+    // matches() for a bare year, find() for a year inside a date
+    private static final Pattern YEAR = Pattern.compile("\\d{4}");
+    private static final Pattern QUALITY_LABEL = Pattern.compile("(HD|4K|CAM|TS)");
+    private static final Pattern PLAY_CALL = Pattern.compile("play\\('([^']+)'");
+
+    // Grid card fields, filled in one traversal per card
+    private static final ExtractionSpec CARD_SPEC = new ExtractionSpec.Builder()
+            .attr("href", "a[href]", "abs:href")
+            .attr("imgDataSrc", "picture img", "data-src")
+            .attr("imgSrc", "picture img", "src")
+            .attr("imgAlt", "picture img", "alt")
+            .text("quality", "span.bg-primary-500")
+            .text("rating", "div.absolute.right-3.top-3 span.text-xs")
+            .text("title", "h3.text-sm")
+            .allText("meta", "div.text-xs.text-white\\/50 span")
+            .text("genre", "div.text-xs.text-white\\/50.gap-x-3.mt-1 span")
+            .build();
+
+    // "Top this week" item fields
+    private static final ExtractionSpec TOP_WEEK_SPEC = new ExtractionSpec.Builder()
+            .attr("href", "a[href]", "abs:href")
+            .attr("imgSrc", "img", "src")
+            .text("title", "h3.text-sm")
+            .text("year", "div.text-xs span")
+            .text("genre", "div.text-xs.text-white\\/50.space-x-3.mt-2 span")
+            .text("rating", "div.relative.flex span.text-xs")
+            .build();
+
+    // Detail page fields, filled in one traversal of the document
+    private static final ExtractionSpec DETAIL_SPEC = new ExtractionSpec.Builder()
+            .allElements("snapshots", "div[wire\\:snapshot]")
+            .text("titleH1", "h1.text-3xl")
+            .text("titleH2", "h2.text-lg")
+            .text("titleH3", "h3.text-xl")
+            .text("quality", "span.bg-gray-500\\/50")
+            .allText("info", "div.flex.items-center.text-gray-400 span")
+            .text("rating", "div.flex.relative span.text-xs")
+            .text("description", "p.text-gray-400.mt-3")
+            .allElements("metadataRows", "div.my-6.space-y-2 > div.grid")
+            .allText("tags", "div.flex.flex-wrap.gap-2 a")
+            .attr("posterSrc", "div.aspect-\\[2\\/3\\] img", "src")
+            .attr("posterDataSrc", "div.aspect-\\[2\\/3\\] img", "data-src")
+            .allElements("serverButtons", "ul.inline-flex button")
+            .build();
+
+    // One "label / value" row of the detail metadata grid
+    private static final ExtractionSpec METADATA_ROW_SPEC = new ExtractionSpec.Builder()
+            .text("label", "div.text-gray-500")
+            .text("value", "div.font-medium")
+            .allText("links", "div.font-medium a")
+            .build();
+
+    private static final ExtractionSpec SERVER_BUTTON_SPEC = new ExtractionSpec.Builder()
+            .text("name", "span")
+            .build();
 
-    private static SSLContext socketFactory;
+    /**
+     * Initialize the scraper's disk-backed caches
+     */
+    public static void init(Context context) {
+        PageCache.init(context.getApplicationContext());
+        StreamResultCache.init(context.getApplicationContext());
+        TmdbIdIndex.init(context.getApplicationContext());
+        UnplayableCache.init(context.getApplicationContext());
+        CatalogStore.init(context.getApplicationContext());
+        HomeSnapshot.init(context.getApplicationContext());
+        VidstackTokenProvider.prefetch();
+    }
 
     /**
-     * Get SSL Socket Factory that trusts all certificates
-     * WARNING: Only use this for testing/development
+     * Duplicate-call counters for every coalesced entry point
      */
-    private static SSLContext getSSLSocketFactory() {
-        if (socketFactory != null) {
-            return socketFactory;
-        }
+    public static String getCoalescingStats() {
+        return detailFlights.getStatsSummary() + "\n"
+                + playbackIdFlights.getStatsSummary() + "\n"
+                + streamFlights.getStatsSummary() + "\n"
+                + DocumentCache.getStatsSummary();
+    }
 
+    /**
+     * Run work through a single-flight group for a public entry point, which returns null on
+     * failure like the rest of the scraper. Only this caller's own outcome is turned into null;
+     * a cancelled leader makes the group rerun the work for the callers that joined it.
+     */
+    private static <V> V coalesce(SingleFlight<String, V> flights, String key, SingleFlight.Work<V> work) {
         try {
-            TrustManager[] trustAllCerts = new TrustManager[]{
-                    new X509TrustManager() {
-                        public X509Certificate[] getAcceptedIssuers() {
-                            return new X509Certificate[0];
-                        }
-
-                        public void checkClientTrusted(X509Certificate[] certs, String authType) {
-                        }
-
-                        public void checkServerTrusted(X509Certificate[] certs, String authType) {
-                        }
-                    }
-            };
-
-            SSLContext sslContext = SSLContext.getInstance("SSL");
-            sslContext.init(null, trustAllCerts, new SecureRandom());
-            //socketFactory = sslContext.getSocketFactory();
-            return sslContext;
+            return flights.run(key, work);
         } catch (Exception e) {
-            Log.e(TAG, "Error creating SSL Socket Factory: " + e.getMessage());
+            logFailure("Coalesced call for " + key, e);
             return null;
         }
     }
 
+    private static void logFailure(String what, Exception e) {
+        if (SingleFlight.isCancellation(e)) {
+            Log.d(TAG, what + " cancelled");
+        } else {
+            Log.e(TAG, what + " failed", e);
+        }
+    }
+
     /**
-     * Create a secure connection with SSL handling
+     * Rethrow a cancellation so it reaches SingleFlight instead of becoming an empty result
      */
-    private static Connection createConnection(String url) {
-        return Jsoup.connect(url)
-                .sslContext(getSSLSocketFactory())
-                .timeout(TIMEOUT)
-                .ignoreContentType(true)
-                .ignoreHttpErrors(true)
-                .followRedirects(true)
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
-                .referrer("https://www.google.com")
-                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8")
-                .header("Accept-Language", "en-US,en;q=0.5")
-                .header("Accept-Encoding", "gzip, deflate")
-                .header("Connection", "keep-alive")
-                .header("Upgrade-Insecure-Requests", "1");
+    private static void rethrowIfCancelled(Exception e) throws Exception {
+        if (SingleFlight.isCancellation(e)) {
+            throw e;
+        }
+    }
+
+    /**
+     * Fetch and parse a page through the shared document cache
+     */
+    private static Document fetchDocument(String url) throws IOException {
+        return DocumentCache.get(url);
     }
 
     /**
      * Scrape movies from the home page
      */
     public static List<Movie> scrapeHomePage() {
-        return scrapeMoviesFromUrl(BASE_URL + "/home");
+        return scrapeMoviesFromUrl(HOME_URL);
     }
 
     /**
@@ -111,51 +189,115 @@ public class FMoviesScraper {
         return scrapeMoviesFromUrl(BASE_URL + categoryPath);
     }
 
+    public static List<Movie> scrapeCategory(String categoryPath, CardBatchListener listener) {
+        return streamMoviesFromUrl(BASE_URL + categoryPath, listener);
+    }
+
     /**
      * Scrape movies page
      */
     public static List<Movie> scrapeMovies() {
-        return scrapeMoviesFromUrl(BASE_URL + "/movie");
+        return scrapeMoviesFromUrl(MOVIES_URL);
+    }
+
+    public static List<Movie> scrapeMovies(CardBatchListener listener) {
+        return streamMoviesFromUrl(MOVIES_URL, listener);
     }
 
     /**
      * Scrape TV shows page
      */
     public static List<Movie> scrapeTVShows() {
-        return scrapeMoviesFromUrl(BASE_URL + "/tv-series");
+        return scrapeMoviesFromUrl(TV_SHOWS_URL);
+    }
+
+    public static List<Movie> scrapeTVShows(CardBatchListener listener) {
+        return streamMoviesFromUrl(TV_SHOWS_URL, listener);
     }
 
     /**
      * Scrape Top IMDb page
      */
     public static List<Movie> scrapeTopIMDb() {
-        return scrapeMoviesFromUrl(BASE_URL + "/top-imdb");
+        return scrapeMoviesFromUrl(TOP_IMDB_URL);
+    }
+
+    public static List<Movie> scrapeTopIMDb(CardBatchListener listener) {
+        return streamMoviesFromUrl(TOP_IMDB_URL, listener);
     }
     private static List<Movie> scrapeMoviesFromUrl(String url) {
-        List<Movie> movies = new ArrayList<>();
+        List<Movie> movies = scrapePageSections(url).grid;
+        CatalogStore.saveList(url, movies);
+        return movies;
+    }
 
-        try {
-            Log.d(TAG, "Scraping URL: " + url);
-            Document doc = createConnection(url).get();
+    /**
+     * Receives grid cards in document order while the page is still downloading
+     */
+    public interface CardBatchListener {
+        void onCards(List<Movie> batch);
+    }
 
-            // Find movie cards in grid - updated selector for new structure
-            Elements movieCards = doc.select("div.aspect-poster.group.relative");
+    /**
+     * Scrape the grid cards of a page as it streams in.
+     * Each card is parsed as soon as its closing tag has been read and handed to the listener
+     * in small batches; finished card nodes are dropped so the partial DOM stays small.
+     * Returns every card once the page has been read. The page is not kept in the document
+     * cache, so use {@link #scrapePageSections(String)} for pages whose other sections are needed.
+     */
+    public static List<Movie> streamMoviesFromUrl(String url, CardBatchListener listener) {
+        List<Movie> movies = new ArrayList<>();
 
-            Log.d(TAG, "Found " + movieCards.size() + " movie cards");
+        // A fresh parsed copy is already at hand, no need to download it again
+        Document cached = DocumentCache.peek(url);
+        if (cached != null) {
+            movies.addAll(extractSections(cached).grid);
+            if (!movies.isEmpty()) {
+                listener.onCards(new ArrayList<>(movies));
+            }
+            return movies;
+        }
 
-            for (Element card : movieCards) {
+        Log.d(TAG, "Streaming URL: " + url);
+        try (Response response = MirrorFetcher.openPage(url);
+             StreamParser parser = new StreamParser(Parser.htmlParser())) {
+            String charset = ScraperHttpClient.charsetOf(response);
+            parser.parse(new InputStreamReader(response.body().byteStream(),
+                            charset != null ? Charset.forName(charset) : Charset.forName("UTF-8")),
+                    response.request().url().toString());
+
+            List<Movie> batch = new ArrayList<>();
+            Element card;
+            while ((card = parser.selectNext(CARD_SELECTOR)) != null) {
+                Movie movie = null;
                 try {
-                    Movie movie = parseMovieCard(card);
-                    if (movie != null && movie.getTitle() != null) {
-                        movies.add(movie);
-                    }
+                    movie = parseMovieCard(card);
                 } catch (Exception e) {
                     Log.e(TAG, "Error parsing movie card: " + e.getMessage());
                 }
+                card.remove();
+
+                if (movie != null && movie.getTitle() != null) {
+                    movie = MovieRegistry.canonical(movie);
+                    movies.add(movie);
+                    batch.add(movie);
+                }
+
+                // Flush the first row early, then in larger batches
+                int limit = movies.size() == batch.size() ? FIRST_BATCH_SIZE : BATCH_SIZE;
+                if (batch.size() >= limit) {
+                    listener.onCards(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                listener.onCards(batch);
             }
 
+            Log.d(TAG, "Streamed " + movies.size() + " movie cards");
+            CatalogStore.saveList(url, movies);
         } catch (IOException e) {
-            Log.e(TAG, "Error scraping movies: " + e.getMessage());
+            Log.e(TAG, "Error streaming movies: " + e.getMessage());
             e.printStackTrace();
         } catch (Exception e) {
             Log.e(TAG, "Unexpected error: " + e.getMessage());
@@ -165,164 +307,232 @@ public class FMoviesScraper {
         return movies;
     }
 
-    private static Movie parseMovieCard(Element card) {
-        Movie movie = new Movie();
+    /**
+     * Every recognizable section of a catalog page, extracted from one fetched document
+     */
+    public static class PageSections {
+        public final List<Movie> grid = new ArrayList<>(); // All poster cards on the page
+        public final List<Movie> topWeek = new ArrayList<>(); // "Top this week" block
+        public final Map<String, List<Movie>> carousels = new LinkedHashMap<>(); // Headed rows, by heading
+
+        public boolean isEmpty() {
+            return grid.isEmpty() && topWeek.isEmpty() && carousels.isEmpty();
+        }
+    }
 
+    /**
+     * Fetch a page once (through the shared document cache) and extract every section on it
+     */
+    public static PageSections scrapePageSections(String url) {
         try {
-            // Extract link and detail URL
-            Element linkElement = card.selectFirst("a[href]");
-            if (linkElement != null) {
-                String detailUrl = linkElement.attr("href");
-                if (!detailUrl.startsWith("http")) {
-                    detailUrl = BASE_URL + detailUrl;
-                }
-                movie.setDetailUrl(detailUrl);
-
-                // Extract ID from URL
-                String[] urlParts = detailUrl.split("/");
-                if (urlParts.length > 0) {
-                    for (int i = urlParts.length - 1; i >= 0; i--) {
-                        if (!urlParts[i].isEmpty()) {
-                            movie.setId(urlParts[i]);
-                            break;
-                        }
-                    }
-                }
+            Log.d(TAG, "Scraping URL: " + url);
+            return extractSections(fetchDocument(url));
+        } catch (IOException e) {
+            Log.e(TAG, "Error scraping movies: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            Log.e(TAG, "Unexpected error: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new PageSections();
+    }
 
-                // Determine type from URL
-                if (detailUrl.contains("/tv-show/")) {
-                    movie.setType("tv");
-                } else if (detailUrl.contains("/movie/")) {
-                    movie.setType("movie");
+    /**
+     * Extract the grid cards, the "Top this week" block and any headed carousels from a document
+     */
+    public static PageSections extractSections(Document doc) {
+        PageSections sections = new PageSections();
+
+        // Find movie cards in grid - updated selector for new structure
+        Elements movieCards = doc.select(CARD_SELECTOR);
+        Log.d(TAG, "Found " + movieCards.size() + " movie cards");
+        sections.grid.addAll(parseCards(movieCards));
+
+        // Find the "Top this week" section
+        Elements topWeekItems = doc.select(TOP_WEEK_SELECTOR);
+        Log.d(TAG, "Found " + topWeekItems.size() + " top week items");
+        for (Element item : topWeekItems) {
+            try {
+                Movie movie = parseTopWeekItem(item);
+                if (movie != null && movie.getTitle() != null) {
+                    sections.topWeek.add(MovieRegistry.canonical(movie));
                 }
+            } catch (Exception e) {
+                Log.e(TAG, "Error parsing top week item: " + e.getMessage());
             }
+        }
 
-            // Extract thumbnail
-            Element imgElement = card.selectFirst("picture img");
-            if (imgElement != null) {
-                String thumbnail = imgElement.attr("data-src");
-                if (thumbnail.isEmpty()) {
-                    thumbnail = imgElement.attr("src");
-                }
-                movie.setThumbnailUrl(thumbnail);
+        // Headed carousels: the nearest container around a heading that holds poster cards
+        for (Element heading : doc.select("h2")) {
+            String name = heading.text().trim();
+            if (name.isEmpty() || sections.carousels.containsKey(name)) {
+                continue;
+            }
 
-                // Extract title from alt
-                String altTitle = imgElement.attr("alt");
-                if (!altTitle.isEmpty()) {
-                    movie.setTitle(altTitle.trim());
+            Element container = heading.parent();
+            for (int depth = 0; container != null && depth < 3; depth++) {
+                Elements cards = container.select(CARD_SELECTOR);
+                if (!cards.isEmpty()) {
+                    // Only accept containers that belong to this heading alone
+                    if (container.select("h2").size() == 1) {
+                        sections.carousels.put(name, parseCards(cards));
+                    }
+                    break;
                 }
+                container = container.parent();
             }
+        }
+        Log.d(TAG, "Found carousels: " + sections.carousels.keySet());
 
-            // Extract quality badge
-            Element qualityElement = card.selectFirst("span.bg-primary-500");
-            if (qualityElement != null) {
-                movie.setQuality(qualityElement.text().trim());
-            }
+        return sections;
+    }
 
-            // Extract rating from the circular progress indicator
-            Element ratingElement = card.selectFirst("div.absolute.right-3.top-3 span.text-xs");
-            if (ratingElement != null) {
-                String rating = ratingElement.text().trim();
-                if (!rating.equals("0.0")) {
-                    movie.setRating(rating);
-                }
-            }
+    private static List<Movie> parseCards(Elements movieCards) {
+        // Large pages are split across cores, each worker reading detached copies of its cards
+        ParallelParser.Result<Movie> parsed = ParallelParser.parse(movieCards, card -> {
+            Movie movie = parseMovieCard(card);
+            return movie != null && movie.getTitle() != null ? movie : null;
+        });
 
-            // Extract title from h3 (bottom hover section)
-            Element titleElement = card.selectFirst("h3.text-sm");
-            if (titleElement != null) {
-                String title = titleElement.text().trim();
-                if (!title.isEmpty()) {
-                    movie.setTitle(title);
-                }
-            }
+        for (ParallelParser.Failure failure : parsed.failures) {
+            Log.e(TAG, "Error parsing movie card " + failure.index + ": " + failure.error.getMessage());
+        }
+        // Titles already on screen elsewhere resolve to the instance those rows hold
+        return MovieRegistry.canonicalize(parsed.items);
+    }
 
-            // Extract duration and year
-            Elements metaSpans = card.select("div.text-xs.text-white\\/50 span");
-            if (metaSpans.size() >= 2) {
-                movie.setDuration(metaSpans.get(0).text().trim());
-                movie.setYear(metaSpans.get(1).text().trim());
-            } else if (metaSpans.size() == 1) {
-                // Could be either duration or year
-                String text = metaSpans.get(0).text().trim();
-                if (text.matches("\\d{4}")) {
-                    movie.setYear(text);
-                } else {
-                    movie.setDuration(text);
-                }
+    /**
+     * Parse one grid card. Errors propagate so batch parsing can record them per card.
+     */
+    private static Movie parseMovieCard(Element card) {
+        Movie movie = new Movie();
+        ExtractionSpec.Result fields = CARD_SPEC.extract(card);
+
+        // Extract link and detail URL
+        String href = fields.get("href");
+        if (href != null) {
+            String detailUrl = applyDetailUrl(movie, href);
+
+            // Determine type from URL
+            if (detailUrl.contains("/tv-show/")) {
+                movie.setType("tv");
+            } else if (detailUrl.contains("/movie/")) {
+                movie.setType("movie");
             }
+        }
 
-            // Extract genre
-            Element genreElement = card.selectFirst("div.text-xs.text-white\\/50.gap-x-3.mt-1 span");
-            if (genreElement != null) {
-                movie.setGenre(genreElement.text().trim());
-            }
+        // Extract thumbnail
+        if (fields.get("imgSrc") != null) {
+            movie.setThumbnailUrl(fields.getOrFallback("imgDataSrc", "imgSrc"));
 
-            if (movie.getTitle() != null) {
-                Log.d(TAG, "Parsed: " + movie.getTitle() + " (" + movie.getYear() + ")");
+            // Extract title from alt
+            String altTitle = fields.get("imgAlt");
+            if (!altTitle.isEmpty()) {
+                movie.setTitle(altTitle.trim());
             }
+        }
 
-            return movie;
+        // Extract quality badge
+        if (fields.get("quality") != null) {
+            movie.setQuality(fields.get("quality"));
+        }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error parsing card: " + e.getMessage());
-            return null;
+        // Extract rating from the circular progress indicator
+        String rating = fields.get("rating");
+        if (rating != null && !rating.equals("0.0")) {
+            movie.setRating(rating);
         }
-    }
 
-    public static List<Movie> scrapeTopThisWeek(String url) {
-        List<Movie> movies = new ArrayList<>();
+        // Extract title from h3 (bottom hover section)
+        String title = fields.get("title");
+        if (title != null && !title.isEmpty()) {
+            movie.setTitle(title);
+        }
 
-        try {
-            Log.d(TAG, "Scraping Top This Week: " + url);
-            Document doc = createConnection(url).get();
+        // Extract duration and year
+        List<String> metaSpans = fields.getAll("meta");
+        if (metaSpans.size() >= 2) {
+            movie.setDuration(metaSpans.get(0));
+            movie.setYear(metaSpans.get(1));
+        } else if (metaSpans.size() == 1) {
+            // Could be either duration or year
+            String text = metaSpans.get(0);
+            if (YEAR.matcher(text).matches()) {
+                movie.setYear(text);
+            } else {
+                movie.setDuration(text);
+            }
+        }
 
-            // Find the "Top this week" section
-            Elements topWeekItems = doc.select("div.rounded-xl div.flex.space-x-8");
+        // Extract genre
+        if (fields.get("genre") != null) {
+            movie.setGenre(fields.get("genre"));
+        }
 
-            Log.d(TAG, "Found " + topWeekItems.size() + " top week items");
+        if (movie.getTitle() != null) {
+            Log.d(TAG, "Parsed: " + movie.getTitle() + " (" + movie.getYear() + ")");
+        }
 
-            for (Element item : topWeekItems) {
-                try {
-                    Movie movie = parseTopWeekItem(item);
-                    if (movie != null && movie.getTitle() != null) {
-                        movies.add(movie);
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "Error parsing top week item: " + e.getMessage());
-                }
-            }
+        return movie;
+    }
 
-        } catch (IOException e) {
-            Log.e(TAG, "Error scraping top week: " + e.getMessage());
+    /**
+     * Set the detail URL on the primary host and derive the slug id from its last path segment
+     */
+    private static String applyDetailUrl(Movie movie, String href) {
+        // Hrefs resolve against whichever mirror served the page. Keying titles by the
+        // primary host keeps them one entry everywhere; MirrorFetcher maps the path back.
+        HttpUrl url = HttpUrl.parse(href);
+        String detailUrl;
+        if (url != null) {
+            detailUrl = BASE_URL + url.encodedPath()
+                    + (url.encodedQuery() != null ? "?" + url.encodedQuery() : "");
+        } else {
+            detailUrl = BASE_URL + (href.startsWith("/") ? href : "/" + href);
+        }
+        movie.setDetailUrl(detailUrl);
+
+        // Extract ID from URL
+        String[] urlParts = detailUrl.split("/");
+        for (int i = urlParts.length - 1; i >= 0; i--) {
+            if (!urlParts[i].isEmpty()) {
+                movie.setId(urlParts[i]);
+                break;
+            }
         }
 
-        return movies;
+        // Titles seen on an earlier detail visit can be played without it
+        movie.setTmdbId(TmdbIdIndex.get(detailUrl));
+        return detailUrl;
+    }
+
+    public static List<Movie> scrapeTopThisWeek(String url) {
+        Log.d(TAG, "Scraping Top This Week: " + url);
+        return scrapePageSections(url).topWeek;
+    }
+
+    /**
+     * "Top this week" for the home screen. Taken from the already-fetched home page
+     * when it carries the block, otherwise from the movies page.
+     */
+    public static List<Movie> scrapeHomeTopThisWeek() {
+        List<Movie> topWeek = scrapePageSections(HOME_URL).topWeek;
+        if (!topWeek.isEmpty()) {
+            return topWeek;
+        }
+        return scrapeTopThisWeek(BASE_URL + "/movies");
     }
 
     private static Movie parseTopWeekItem(Element item) {
         Movie movie = new Movie();
 
         try {
+            ExtractionSpec.Result fields = TOP_WEEK_SPEC.extract(item);
+
             // Extract link and URL
-            Element linkElement = item.selectFirst("a[href]");
-            if (linkElement != null) {
-                String detailUrl = linkElement.attr("href");
-                if (!detailUrl.startsWith("http")) {
-                    detailUrl = BASE_URL + detailUrl;
-                }
-                movie.setDetailUrl(detailUrl);
-
-                // Extract ID
-                String[] urlParts = detailUrl.split("/");
-                if (urlParts.length > 0) {
-                    for (int i = urlParts.length - 1; i >= 0; i--) {
-                        if (!urlParts[i].isEmpty()) {
-                            movie.setId(urlParts[i]);
-                            break;
-                        }
-                    }
-                }
+            String href = fields.get("href");
+            if (href != null) {
+                String detailUrl = applyDetailUrl(movie, href);
 
                 // Determine type
                 if (detailUrl.contains("/tv-show/")) {
@@ -333,37 +543,29 @@ public class FMoviesScraper {
             }
 
             // Extract thumbnail
-            Element imgElement = item.selectFirst("img");
-            if (imgElement != null) {
-                String thumbnail = imgElement.attr("src");
-                movie.setThumbnailUrl(thumbnail);
+            if (fields.get("imgSrc") != null) {
+                movie.setThumbnailUrl(fields.get("imgSrc"));
             }
 
             // Extract title
-            Element titleElement = item.selectFirst("h3.text-sm");
-            if (titleElement != null) {
-                movie.setTitle(titleElement.text().trim());
+            if (fields.get("title") != null) {
+                movie.setTitle(fields.get("title"));
             }
 
             // Extract year
-            Element yearElement = item.selectFirst("div.text-xs span");
-            if (yearElement != null) {
-                movie.setYear(yearElement.text().trim());
+            if (fields.get("year") != null) {
+                movie.setYear(fields.get("year"));
             }
 
             // Extract genre
-            Element genreElement = item.selectFirst("div.text-xs.text-white\\/50.space-x-3.mt-2 span");
-            if (genreElement != null) {
-                movie.setGenre(genreElement.text().trim());
+            if (fields.get("genre") != null) {
+                movie.setGenre(fields.get("genre"));
             }
 
             // Extract rating
-            Element ratingElement = item.selectFirst("div.relative.flex span.text-xs");
-            if (ratingElement != null) {
-                String rating = ratingElement.text().trim();
-                if (!rating.equals("0.0")) {
-                    movie.setRating(rating);
-                }
+            String rating = fields.get("rating");
+            if (rating != null && !rating.equals("0.0")) {
+                movie.setRating(rating);
             }
 
             return movie;
@@ -379,51 +581,44 @@ public class FMoviesScraper {
      * Updated to match the new HTML structure
      */
     public static Movie scrapeMovieDetails(String detailUrl) {
+        return coalesce(detailFlights, detailUrl, () -> fetchMovieDetails(detailUrl));
+    }
+
+    private static Movie fetchMovieDetails(String detailUrl) throws Exception {
         Movie movie = new Movie();
 
         try {
             Log.d(TAG, "Scraping details: " + detailUrl);
-            Document doc = createConnection(detailUrl).get();
-
-            // Extract TMDB ID from the video sources section
-            Element videoSection = doc.selectFirst("div[wire\\:snapshot]");
-            if (videoSection != null) {
-                String wireSnapshot = videoSection.attr("wire:snapshot");
-                if (wireSnapshot.contains("tmdbId")) {
-                    Pattern tmdbPattern = Pattern.compile("\"tmdbId\"\\s*:\\s*\"(\\d+)\"");
-                    Matcher matcher = tmdbPattern.matcher(wireSnapshot);
-                    if (matcher.find()) {
-                        movie.setId(matcher.group(1));
-                    }
-                }
+            Document doc = ScraperHttpClient.fetchDocument(detailUrl);
+            ExtractionSpec.Result fields = DETAIL_SPEC.extract(doc);
+
+            // Structured fields from the Livewire snapshots, read in one streaming pass each
+            LivewireSnapshot snapshot = new LivewireSnapshot();
+            for (Element snapshotElement : fields.getElements("snapshots")) {
+                snapshot.read(snapshotElement.attr("wire:snapshot"));
+            }
+            if (snapshot.tmdbId != null) {
+                TmdbIdIndex.put(detailUrl, snapshot.tmdbId);
             }
 
             // Extract title from h1 or h2
-            Element titleH1 = doc.selectFirst("h1.text-3xl");
-            Element titleH2 = doc.selectFirst("h2.text-lg");
-            Element titleH3 = doc.selectFirst("h3.text-xl");
-
-            if (titleH1 != null) {
-                movie.setTitle(titleH1.text().trim());
-            } else if (titleH3 != null) {
-                movie.setTitle(titleH3.text().trim());
-            } else if (titleH2 != null) {
-                movie.setTitle(titleH2.text().trim());
+            if (fields.get("titleH1") != null) {
+                movie.setTitle(fields.get("titleH1"));
+            } else if (fields.get("titleH3") != null) {
+                movie.setTitle(fields.get("titleH3"));
+            } else if (fields.get("titleH2") != null) {
+                movie.setTitle(fields.get("titleH2"));
             }
 
             // Extract quality badge
-            Element qualityElement = doc.selectFirst("span.bg-gray-500\\/50");
-            if (qualityElement != null) {
-                movie.setQuality(qualityElement.text().trim());
+            if (fields.get("quality") != null) {
+                movie.setQuality(fields.get("quality"));
             }
 
             // Extract duration, year, and other metadata from the info section
-            Elements infoSpans = doc.select("div.flex.items-center.text-gray-400 span");
-            for (Element span : infoSpans) {
-                String text = span.text().trim();
-
+            for (String text : fields.getAll("info")) {
                 // Check if it's a year (4 digits)
-                if (text.matches("\\d{4}")) {
+                if (YEAR.matcher(text).matches()) {
                     movie.setYear(text);
                 }
                 // Check if it's duration (contains "min")
@@ -431,75 +626,54 @@ public class FMoviesScraper {
                     movie.setDuration(text);
                 }
                 // Check if it's quality (HD, 4K, etc.)
-                else if (text.matches("(HD|4K|CAM|TS)")) {
+                else if (QUALITY_LABEL.matcher(text).matches()) {
                     movie.setQuality(text);
                 }
             }
 
             // Extract rating from circular progress
-            Element ratingElement = doc.selectFirst("div.flex.relative span.text-xs");
-            if (ratingElement != null) {
-                String rating = ratingElement.text().trim();
-                if (!rating.equals("0.0") && !rating.isEmpty()) {
-                    movie.setRating(rating);
-                }
+            String rating = fields.get("rating");
+            if (rating != null && !rating.equals("0.0") && !rating.isEmpty()) {
+                movie.setRating(rating);
             }
 
             // Extract description/plot
-            Element descElement = doc.selectFirst("p.text-gray-400.mt-3");
-            if (descElement != null) {
-                movie.setDescription(descElement.text().trim());
+            if (fields.get("description") != null) {
+                movie.setDescription(fields.get("description"));
             }
 
             // Extract metadata from the structured section
-            Elements metadataRows = doc.select("div.my-6.space-y-2 > div.grid");
-
-            for (Element row : metadataRows) {
-                Element label = row.selectFirst("div.text-gray-500");
-                Element value = row.selectFirst("div.font-medium");
+            for (Element row : fields.getElements("metadataRows")) {
+                ExtractionSpec.Result rowFields = METADATA_ROW_SPEC.extract(row);
+                String label = rowFields.get("label");
 
-                if (label != null && value != null) {
-                    String labelText = label.text().trim().toLowerCase();
+                if (label != null && rowFields.get("value") != null) {
+                    List<String> links = rowFields.getAll("links");
 
-                    switch (labelText) {
+                    switch (label.toLowerCase()) {
                         case "country":
-                            Element countryLink = value.selectFirst("a");
-                            if (countryLink != null) {
-                                movie.setCountry(countryLink.text().trim());
+                            if (!links.isEmpty()) {
+                                movie.setCountry(links.get(0));
                             }
                             break;
 
                         case "genre":
-                            Elements genreLinks = value.select("a");
-                            StringBuilder genres = new StringBuilder();
-                            for (Element link : genreLinks) {
-                                if (genres.length() > 0) genres.append(", ");
-                                genres.append(link.text().trim());
-                            }
-                            if (genres.length() > 0) {
-                                movie.setGenre(genres.toString());
+                            if (!links.isEmpty()) {
+                                movie.setGenre(join(links));
                             }
                             break;
 
                         case "released":
-                            String releaseDate = value.text().trim();
                             // Extract year from release date (e.g., "24 Dec, 2025" -> "2025")
-                            Pattern yearPattern = Pattern.compile("\\d{4}");
-                            Matcher yearMatcher = yearPattern.matcher(releaseDate);
+                            Matcher yearMatcher = YEAR.matcher(rowFields.get("value"));
                             if (yearMatcher.find()) {
                                 movie.setYear(yearMatcher.group());
                             }
                             break;
 
                         case "cast":
-                            Elements castLinks = value.select("a");
-                            StringBuilder actors = new StringBuilder();
-                            for (Element link : castLinks) {
-                                if (actors.length() > 0) actors.append(", ");
-                                actors.append(link.text().trim());
-                            }
-                            if (actors.length() > 0) {
-                                movie.setActors(actors.toString());
+                            if (!links.isEmpty()) {
+                                movie.setActors(join(links));
                             }
                             break;
                     }
@@ -507,47 +681,28 @@ public class FMoviesScraper {
             }
 
             // Extract keywords/tags
-            Elements tagLinks = doc.select("div.flex.flex-wrap.gap-2 a");
-            StringBuilder keywords = new StringBuilder();
-            for (Element tag : tagLinks) {
-                if (keywords.length() > 0) keywords.append(", ");
-                keywords.append(tag.text().trim());
-            }
-            if (keywords.length() > 0) {
-                movie.setKeywords(keywords.toString());
+            List<String> tags = fields.getAll("tags");
+            if (!tags.isEmpty()) {
+                movie.setKeywords(join(tags));
             }
 
             // Extract poster/thumbnail
-            Element posterElement = doc.selectFirst("div.aspect-\\[2\\/3\\] img");
-            if (posterElement != null) {
-                String posterUrl = posterElement.attr("src");
-                if (posterUrl.isEmpty()) {
-                    posterUrl = posterElement.attr("data-src");
-                }
-                movie.setThumbnailUrl(posterUrl);
-            }
-
-            // Extract backdrop/cover from wire:snapshot data
-            if (videoSection != null) {
-                String wireSnapshot = videoSection.attr("wire:snapshot");
-                if (wireSnapshot.contains("cover")) {
-                    Pattern coverPattern = Pattern.compile("\"cover\"\\s*:\\s*\"([^\"]+)\"");
-                    Matcher matcher = coverPattern.matcher(wireSnapshot);
-                    if (matcher.find()) {
-                        String coverUrl = matcher.group(1).replace("\\/", "/");
-                        movie.setBackdropUrl(coverUrl);
-                    }
-                }
+            if (fields.get("posterSrc") != null) {
+                movie.setThumbnailUrl(fields.getOrFallback("posterSrc", "posterDataSrc"));
             }
 
             // Extract stream sources
-            List<Movie.StreamSource> sources = extractStreamSources(doc);
+            List<Movie.StreamSource> sources = extractStreamSources(fields.getElements("serverButtons"));
             movie.setStreamSources(sources);
             if (!sources.isEmpty()) {
                 movie.setStreamUrl(sources.get(0).getUrl());
             }
 
-            movie.setDetailUrl(detailUrl);
+            // Same slug id as the title's cards; the tmdbId only ever goes in its own field
+            applyDetailUrl(movie, detailUrl);
+
+            // Snapshot values are structured data, so they win over the DOM where present
+            snapshot.applyTo(movie);
 
             if (movie.getType() == null || movie.getType().isEmpty()) {
                 if (detailUrl.contains("/tv-show/")) {
@@ -557,14 +712,18 @@ public class FMoviesScraper {
                 }
             }
 
-            Log.d(TAG, "Scraped: " + movie.getTitle() + " - " + sources.size() + " sources");
-
-
+            Log.d(TAG, "Scraped: " + movie.getTitle() + " - " + movie.getStreamSources().size() + " sources");
+            if (movie.getTitle() != null) {
+                CatalogStore.saveMovie(movie);
+                MovieRegistry.attachDetails(movie);
+            }
 
         } catch (IOException e) {
+            rethrowIfCancelled(e);
             Log.e(TAG, "Error scraping details: " + e.getMessage());
             e.printStackTrace();
         } catch (Exception e) {
+            rethrowIfCancelled(e);
             Log.e(TAG, "Unexpected error: " + e.getMessage());
             e.printStackTrace();
         }
@@ -572,24 +731,30 @@ public class FMoviesScraper {
         return movie;
     }
 
+    private static String join(List<String> values) {
+        StringBuilder joined = new StringBuilder();
+        for (String value : values) {
+            if (joined.length() > 0) joined.append(", ");
+            joined.append(value);
+        }
+        return joined.toString();
+    }
+
     /**
-     * Extract all stream sources from detail page
+     * Extract all stream sources from the detail page's server buttons
      */
-    private static List<Movie.StreamSource> extractStreamSources(Document doc) {
+    private static List<Movie.StreamSource> extractStreamSources(List<Element> serverButtons) {
         List<Movie.StreamSource> sources = new ArrayList<>();
 
         try {
-            Elements serverButtons = doc.select("ul.inline-flex button");
-
             int index = 0;
             for (Element button : serverButtons) {
-                Element nameSpan = button.selectFirst("span");
-                String serverName = nameSpan != null ? nameSpan.text().trim() : "Server " + index;
+                String name = SERVER_BUTTON_SPEC.extract(button).get("name");
+                String serverName = name != null ? name : "Server " + index;
 
                 String onClick = button.attr("x-on:click");
                 if (!onClick.isEmpty()) {
-                    Pattern urlPattern = Pattern.compile("play\\('([^']+)'");
-                    Matcher matcher = urlPattern.matcher(onClick);
+                    Matcher matcher = PLAY_CALL.matcher(onClick);
                     if (matcher.find()) {
                         String url = matcher.group(1);
                         sources.add(new Movie.StreamSource(serverName, url, index));
@@ -612,11 +777,12 @@ public class FMoviesScraper {
      * Result class to hold stream URL, all quality URLs, and subtitles
      */
     public static class StreamResult {
+        public String tmdbId; // Title the streams were resolved for
         public String streamUrl; // Best quality URL
-        public Map<String, String> qualities; // All available qualities
-        public Map<String, String> subtitles; // All available subtitles
+        public QualityLadder qualities; // All available qualities, best first
+        public QualityLadder subtitles; // All available subtitles
 
-        public StreamResult(String streamUrl, Map<String, String> qualities, Map<String, String> subtitles) {
+        public StreamResult(String streamUrl, QualityLadder qualities, QualityLadder subtitles) {
             this.streamUrl = streamUrl;
             this.qualities = qualities;
             this.subtitles = subtitles;
@@ -635,291 +801,366 @@ public class FMoviesScraper {
     /**
      * Extracts stream URL and subtitles from encrypted sources
      * Returns StreamResult with best URL, all qualities, and subtitles
+     * Served from the stream result cache while its signed URLs are still valid
      */
     public static StreamResult extractStreamUrlWithSubtitles(String tmdb_id) {
-        final String API = "https://enc-dec.app/api";
-
-        try {
-            // Step 1: Get token data
-            String tokenUrl = API + "/enc-vidstack";
-            JSONObject tokenResponse = makeGetRequest(tokenUrl);
-            JSONObject tokenData = tokenResponse.getJSONObject("result");
-            String token = tokenData.getString("token");
-            String userId = tokenData.getString("user_id");
-
-            Log.d(TAG, "Got token: " + token.substring(0, 10) + "...");
-
-            // Step 2: Get player data from videofsh (type 2)
-            String playerUrl = String.format(
-                    "https://api.smashystream.top/api/v1/videofsh/%s?token=%s&user_id=%s",
-                    tmdb_id, token, userId
-            );
-
-            JSONObject playerResponse = makeGetRequest(playerUrl);
-            JSONObject data = playerResponse.getJSONObject("data");
-            JSONArray sources = data.getJSONArray("sources");
-
-            if (sources.length() == 0) {
-                Log.e(TAG, "No sources found");
-                return null;
-            }
-
-            // Get encrypted file
-            String encryptedFile = sources.getJSONObject(0).getString("file");
-
-            // Get subtitles/tracks if available
-            String encryptedTracks = "";
-            if (data.has("tracks")) {
-                Object tracksObj = data.get("tracks");
-                if (tracksObj instanceof String) {
-                    encryptedTracks = (String) tracksObj;
-                } else if (tracksObj instanceof JSONArray) {
-                    encryptedTracks = tracksObj.toString();
-                }
-            }
-
-            Log.d(TAG, "Encrypted file length: " + encryptedFile.length());
+        return coalesce(streamFlights, tmdb_id,
+                () -> resolveCachedStreamResult(tmdb_id, () -> resolveStreamResult(tmdb_id)));
+    }
 
-            // Step 3: Decrypt the file
-            String decryptUrl = API + "/dec-vidstack";
-            JSONObject decryptPayload = new JSONObject();
-            decryptPayload.put("text", encryptedFile);
-            decryptPayload.put("type", "2");
+    /**
+     * The body of every streamFlights call, keyed by tmdbId whichever entry point started it
+     */
+    private static StreamResult resolveCachedStreamResult(String tmdb_id,
+                                                          SingleFlight.Work<StreamResult> resolve) throws Exception {
+        StreamResult cached = StreamResultCache.get(tmdb_id);
+        if (cached != null) {
+            cached.tmdbId = tmdb_id;
+            return cached;
+        }
+        if (isKnownUnplayable(tmdb_id)) {
+            return null;
+        }
 
-            JSONObject decryptResponse = makePostRequest(decryptUrl, decryptPayload);
-            String decrypted = decryptResponse.getString("result");
+        StreamResult result = resolve.run();
+        if (result != null) {
+            StreamResultCache.put(tmdb_id, result);
+            UnplayableCache.clear(tmdb_id);
+        }
+        return result;
+    }
 
-            Log.d(TAG, "Decrypted data: " + decrypted.substring(0, Math.min(100, decrypted.length())) + "...");
+    /**
+     * Why a title (by tmdbId or detail URL) recently failed to resolve, or null if it may be tried
+     */
+    public static UnplayableCache.Reason getUnavailableReason(String idOrUrl) {
+        if (idOrUrl == null) {
+            return null;
+        }
+        String tmdbId = idOrUrl.startsWith("http") ? TmdbIdIndex.get(idOrUrl) : idOrUrl;
+        return UnplayableCache.get(tmdbId);
+    }
 
-            // Step 4: Parse the decrypted result
-            Map<String, String> parsedUrls = listParser(decrypted);
+    private static boolean isKnownUnplayable(String tmdb_id) {
+        UnplayableCache.Reason reason = UnplayableCache.get(tmdb_id);
+        if (reason == null) {
+            return false;
+        }
+        Log.d(TAG, "Skipping " + tmdb_id + ", known unplayable: " + reason.message);
+        return true;
+    }
 
-            // Log available qualities
-            Log.d(TAG, "Available qualities: " + parsedUrls.keySet());
+    /**
+     * The identifiers needed to play a title, read from the top of its detail page
+     */
+    public static class PlaybackIds {
+        public String tmdbId;
+        public String coverUrl;
+    }
 
-            // Step 5: Decrypt subtitles if available
-            Map<String, String> subtitles = new HashMap<>();
-            if (!encryptedTracks.isEmpty()) {
-                try {
-                    JSONObject subtitlePayload = new JSONObject();
-                    subtitlePayload.put("text", encryptedTracks);
-                    subtitlePayload.put("type", "2");
+    /**
+     * Lightweight alternative to {@link #scrapeMovieDetails(String)} for the Play path.
+     * Reads the detail page as a stream, stops at the first Livewire snapshot carrying a
+     * tmdbId and closes the connection without downloading or parsing the rest of the page.
+     */
+    public static PlaybackIds scrapePlaybackIds(String detailUrl) {
+        PlaybackIds ids = coalesce(playbackIdFlights, detailUrl, () -> probePlaybackIds(detailUrl));
+        return ids != null ? ids : new PlaybackIds();
+    }
 
-                    JSONObject subtitleResponse = makePostRequest(decryptUrl, subtitlePayload);
-                    String decryptedTracks = subtitleResponse.getString("result");
-                    subtitles = listParser(decryptedTracks);
+    private static PlaybackIds probePlaybackIds(String detailUrl) throws Exception {
+        PlaybackIds ids = new PlaybackIds();
 
-                    Log.d(TAG, "Found " + subtitles.size() + " subtitle tracks");
-                } catch (Exception e) {
-                    Log.e(TAG, "Error decrypting subtitles: " + e.getMessage());
+        try (Response response = MirrorFetcher.openPage(detailUrl)) {
+            InputStream in = new BufferedInputStream(response.body().byteStream());
+            for (int i = 0; i < MAX_SNAPSHOTS_PROBED; i++) {
+                String snapshot = readNextSnapshot(in);
+                if (snapshot == null) {
+                    break;
                 }
-            }
 
-            // Step 6: Select best quality URL
-            // Priority: 1080p -> 720p -> 480p -> 360p -> default
-            String[] qualities = {"1080p", "720p", "480p", "360p", "1080", "720", "480", "360"};
-            String bestUrl = null;
-
-            for (String quality : qualities) {
-                if (parsedUrls.containsKey(quality)) {
-                    bestUrl = parsedUrls.get(quality);
-                    Log.d(TAG, "Selected stream quality: " + quality);
-                    Log.d(TAG, "Stream URL: " + bestUrl.substring(0, Math.min(80, bestUrl.length())) + "...");
+                LivewireSnapshot fields = new LivewireSnapshot().read(snapshot);
+                if (fields.tmdbId != null) {
+                    ids.tmdbId = fields.tmdbId;
+                    ids.coverUrl = fields.coverUrl;
+                    TmdbIdIndex.put(detailUrl, ids.tmdbId);
                     break;
                 }
             }
+            Log.d(TAG, "Probed " + detailUrl + " -> tmdbId " + ids.tmdbId);
+        } catch (IOException e) {
+            rethrowIfCancelled(e);
+            Log.e(TAG, "Error probing detail page: " + e.getMessage());
+        }
 
-            // Fallback to default or first available
-            if (bestUrl == null) {
-                if (parsedUrls.containsKey("default") && !parsedUrls.get("default").isEmpty()) {
-                    bestUrl = parsedUrls.get("default");
-                    Log.d(TAG, "Using default quality");
-                } else if (!parsedUrls.isEmpty()) {
-                    String firstKey = parsedUrls.keySet().iterator().next();
-                    bestUrl = parsedUrls.get(firstKey);
-                    Log.d(TAG, "Using first available: " + firstKey);
-                }
-            }
+        return ids;
+    }
 
-            if (bestUrl == null) {
-                Log.e(TAG, "No suitable stream URL found");
+    /**
+     * Skip to the next wire:snapshot attribute and return its unescaped value, or null at EOF
+     */
+    private static String readNextSnapshot(InputStream in) throws IOException {
+        // The marker has no prefix that is also a suffix, so a mismatch only needs to
+        // check whether the current byte restarts it
+        int matched = 0;
+        int b;
+        while (matched < SNAPSHOT_MARKER.length) {
+            b = in.read();
+            if (b == -1) {
                 return null;
             }
+            if (b == SNAPSHOT_MARKER[matched]) {
+                matched++;
+            } else {
+                matched = b == SNAPSHOT_MARKER[0] ? 1 : 0;
+            }
+        }
+
+        // Attribute values are entity-escaped, so the value ends at the next raw quote
+        ByteArrayOutputStream value = new ByteArrayOutputStream(4096);
+        while ((b = in.read()) != -1 && b != '"') {
+            value.write(b);
+        }
+        return Parser.unescapeEntities(value.toString("UTF-8"), true);
+    }
+
+    /**
+     * Resolve a stream starting from a detail page URL.
+     * The token fetch runs alongside the detail page probe that yields the tmdbId.
+     */
+    public static StreamResult extractStreamUrlFromDetailUrl(String detailUrl) {
+        // Already-browsed titles skip the detail page entirely
+        String knownId = TmdbIdIndex.get(detailUrl);
+        if (knownId != null) {
+            Log.d(TAG, "tmdbId " + knownId + " from index for " + detailUrl);
+            return extractStreamUrlWithSubtitles(knownId);
+        }
+        try {
+            return resolveFromDetailUrl(detailUrl);
+        } catch (Exception e) {
+            logFailure("Resolving " + detailUrl, e);
+            return null;
+        }
+    }
 
-            return new StreamResult(bestUrl, parsedUrls, subtitles);
+    /**
+     * Probe the detail page for the tmdbId, then join the same tmdbId-keyed flight the player
+     * uses, handing it the token fetched in the meantime. Concurrent probes of one page are
+     * shared through playbackIdFlights.
+     */
+    private static StreamResult resolveFromDetailUrl(String detailUrl) throws Exception {
+        StageGraph graph = new StageGraph("resolve " + detailUrl, Deadline.after(RESOLVE_BUDGET_MS));
+        StageGraph.Stage<VidstackTokenProvider.Token> token = graph.start("token", VidstackTokenProvider::get);
+        StageGraph.Stage<String> tmdbId = graph.start("detail-page", () -> scrapePlaybackIds(detailUrl).tmdbId);
 
+        try {
+            String id = tmdbId.get();
+            if (id == null) {
+                Log.e(TAG, "No tmdbId found on " + detailUrl);
+                return null;
+            }
+            return streamFlights.run(id, () -> resolveCachedStreamResult(id, () -> resolveStages(graph, id, token)));
         } catch (Exception e) {
+            rethrowIfCancelled(e);
+            Log.e(TAG, "Error extracting stream URL: " + e.getMessage());
+            return null;
+        } finally {
+            // Stops the token fetch when the cache answered or another caller led the flight
+            graph.cancel();
+            graph.logTimings();
+        }
+    }
+
+    /**
+     * Run the full token -> videofsh -> decrypt pipeline
+     */
+    private static StreamResult resolveStreamResult(String tmdb_id) throws Exception {
+        StageGraph graph = new StageGraph("resolve " + tmdb_id, Deadline.after(RESOLVE_BUDGET_MS));
+        try {
+            StageGraph.Stage<VidstackTokenProvider.Token> token = graph.start("token", VidstackTokenProvider::get);
+            return resolveStages(graph, tmdb_id, token);
+        } catch (Exception e) {
+            graph.cancel();
+            rethrowIfCancelled(e);
             Log.e(TAG, "Error extracting stream URL: " + e.getMessage());
             e.printStackTrace();
             return null;
+        } finally {
+            graph.logTimings();
         }
     }
 
     /**
-     * Parse list format string into quality -> URL map
-     * Handles formats:
-     * - "[1080p]url1, [720p]url2, [360p]url3"
-     * - "[Arabic]url1, [English]url2"
-     * - "url1 or url2"
-     * - "url1, url2"
+     * Stages after the token: player data, then the file and track decrypts in parallel
      */
-    private static Map<String, String> listParser(String text) {
-        Map<String, String> result = new HashMap<>();
+    private static StreamResult resolveStages(StageGraph graph, String tmdb_id,
+                                              StageGraph.Stage<VidstackTokenProvider.Token> token) throws Exception {
+        final String decryptUrl = "https://enc-dec.app/api/dec-vidstack";
+
+        // Get player data from videofsh (type 2)
+        StageGraph.Stage<JsonPaths.Result> player = graph.start("player",
+                () -> fetchPlayerData(tmdb_id, token.get()), token);
+
+        // Decrypt the file
+        StageGraph.Stage<QualityLadder> file = graph.start("decrypt-file", () -> {
+            String encryptedFile = player.get().get(PLAYER_FILE_PATH);
+            if (encryptedFile == null) {
+                Log.e(TAG, "No sources found");
+                UnplayableCache.record(tmdb_id, UnplayableCache.Reason.NO_SOURCES);
+                return null;
+            }
+            Log.d(TAG, "Encrypted file length: " + encryptedFile.length());
 
-        if (text == null || text.isEmpty()) {
-            return result;
-        }
+            JSONObject decryptPayload = new JSONObject();
+            decryptPayload.put("text", encryptedFile);
+            decryptPayload.put("type", "2");
 
-        // Clean up text
-        text = text.trim().replaceAll(",$", "").replace(" or ", ",");
+            String decrypted;
+            try {
+                decrypted = decrypt(decryptUrl, decryptPayload);
+            } catch (JSONException e) {
+                // The decrypt service answered but could not decrypt this title's sources
+                UnplayableCache.record(tmdb_id, UnplayableCache.Reason.DECRYPT_FAILED);
+                throw e;
+            }
 
-        // Split by comma
-        String[] items = text.split(",");
+            Log.d(TAG, "Decrypted data: " + decrypted.substring(0, Math.min(100, decrypted.length())) + "...");
+            return QualityLadder.parse(decrypted);
+        }, player);
+
+        // Decrypt subtitles if available
+        StageGraph.Stage<QualityLadder> tracks = graph.start("decrypt-tracks", () -> {
+            // A string, or an array captured as its JSON text
+            String encryptedTracks = player.get().get(PLAYER_TRACKS_PATH);
+            if (encryptedTracks == null) {
+                encryptedTracks = "";
+            }
 
-        for (String item : items) {
-            item = item.trim();
-            if (item.isEmpty()) continue;
+            QualityLadder subtitles = QualityLadder.empty();
+            if (!encryptedTracks.isEmpty()) {
+                try {
+                    JSONObject subtitlePayload = new JSONObject();
+                    subtitlePayload.put("text", encryptedTracks);
+                    subtitlePayload.put("type", "2");
 
-            // Check if it has quality/language tag [xxx]url format
-            if (item.startsWith("[") && item.contains("]")) {
-                int closeBracket = item.indexOf("]");
-                String key = item.substring(1, closeBracket).trim();
-                String url = item.substring(closeBracket + 1).trim();
+                    subtitles = QualityLadder.parse(decrypt(decryptUrl, subtitlePayload));
 
-                if (!url.isEmpty()) {
-                    result.put(key, url);
-                }
-            } else {
-                // No tag, add to default
-                String existing = result.get("default");
-                if (existing == null) {
-                    result.put("default", item);
-                } else {
-                    result.put("default", existing + "," + item);
+                    Log.d(TAG, "Found " + subtitles.size() + " subtitle tracks");
+                } catch (Exception e) {
+                    Log.e(TAG, "Error decrypting subtitles: " + e.getMessage());
                 }
             }
+            return subtitles;
+        }, player);
+
+        QualityLadder ladder = file.get();
+        if (ladder == null) {
+            return null;
         }
 
+        // Log available qualities
+        Log.d(TAG, "Available qualities: " + ladder.labels());
+
+        // The ladder is sorted, so the best quality is its head (or "default" without resolutions)
+        QualityLadder.Entry best = ladder.best();
+        if (best == null) {
+            Log.e(TAG, "No suitable stream URL found");
+            UnplayableCache.record(tmdb_id, UnplayableCache.Reason.DECRYPT_FAILED);
+            return null;
+        }
+        String bestUrl = best.url;
+        Log.d(TAG, "Selected stream quality: " + best.label);
+        Log.d(TAG, "Stream URL: " + bestUrl.substring(0, Math.min(80, bestUrl.length())) + "...");
+
+        StreamResult result = new StreamResult(bestUrl, ladder, tracks.get());
+        result.tmdbId = tmdb_id;
         return result;
     }
 
     /**
-     * Make HTTP GET request and return JSON response
+     * Request videofsh player data with the given token.
+     * If the endpoint rejects a cached token, retry once with a freshly fetched one.
      */
-    private static JSONObject makeGetRequest(String urlString) throws Exception {
-        URL url = new URL(urlString);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("User-Agent",
-                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/137.0.0.0 Safari/537.36");
-        conn.setRequestProperty("Connection", "keep-alive");
-        conn.setConnectTimeout(TIMEOUT);
-        conn.setReadTimeout(TIMEOUT);
-
-        int responseCode = conn.getResponseCode();
-        if (responseCode != 200) {
-            throw new Exception("HTTP Error: " + responseCode);
+    private static JsonPaths.Result fetchPlayerData(String tmdb_id, VidstackTokenProvider.Token token) throws Exception {
+        try {
+            return requestPlayerData(tmdb_id, token);
+        } catch (Exception e) {
+            if (!isTokenRejection(e)) {
+                throw e;
+            }
+            Log.w(TAG, "Token rejected (" + e.getMessage() + "), retrying with a fresh token");
+            VidstackTokenProvider.invalidate(token);
+            return requestPlayerData(tmdb_id, VidstackTokenProvider.refresh());
         }
+    }
 
-        BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-        StringBuilder response = new StringBuilder();
-        String line;
+    private static JsonPaths.Result requestPlayerData(String tmdb_id, VidstackTokenProvider.Token token) throws Exception {
+        String playerUrl = String.format(
+                "https://api.smashystream.top/api/v1/videofsh/%s?token=%s&user_id=%s",
+                tmdb_id, token.token, token.userId
+        );
 
-        while ((line = in.readLine()) != null) {
-            response.append(line);
+        JsonPaths.Result playerResponse = makeGetRequest(playerUrl, PLAYER_PATHS);
+        if (!playerResponse.hasContainer("data")) {
+            throw new JSONException("No data in player response");
         }
-        in.close();
-        conn.disconnect();
-
-        return new JSONObject(response.toString());
+        return playerResponse;
     }
 
     /**
-     * Make HTTP POST request with JSON body
+     * Post an encrypted value to the decrypt endpoint and return its "result"
      */
-    private static JSONObject makePostRequest(String urlString, JSONObject payload) throws Exception {
-        URL url = new URL(urlString);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setRequestProperty("User-Agent",
-                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/137.0.0.0 Safari/537.36");
-        conn.setRequestProperty("Connection", "keep-alive");
-        conn.setDoOutput(true);
-        conn.setConnectTimeout(TIMEOUT);
-        conn.setReadTimeout(TIMEOUT);
-
-        // Write payload
-        OutputStream os = conn.getOutputStream();
-        os.write(payload.toString().getBytes("UTF-8"));
-        os.flush();
-        os.close();
-
-        int responseCode = conn.getResponseCode();
-        if (responseCode != 200) {
-            throw new Exception("HTTP Error: " + responseCode);
+    private static String decrypt(String decryptUrl, JSONObject payload) throws Exception {
+        String decrypted = makePostRequest(decryptUrl, payload, DECRYPT_PATHS).get("result");
+        if (decrypted == null) {
+            throw new JSONException("No result in decrypt response");
         }
+        return decrypted;
+    }
 
-        BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-        StringBuilder response = new StringBuilder();
-        String line;
-
-        while ((line = in.readLine()) != null) {
-            response.append(line);
+    /**
+     * An auth status, or a body without the expected "data" object, means the token went stale
+     */
+    private static boolean isTokenRejection(Exception e) {
+        if (e instanceof ScraperHttpClient.HttpStatusException) {
+            int status = ((ScraperHttpClient.HttpStatusException) e).getStatusCode();
+            return status == 400 || status == 401 || status == 403;
         }
-        in.close();
-        conn.disconnect();
-
-        return new JSONObject(response.toString());
+        return e instanceof JSONException;
     }
 
     /**
-     * Get all available stream qualities for a movie
+     * Make HTTP GET request to the player API and read only the given paths of the JSON response
      */
-    public static Map<String, String> getAllStreamQualities(String tmdb_id) {
-        final String API = "https://enc-dec.app/api";
-
-        try {
-            String tokenUrl = API + "/enc-vidstack";
-            JSONObject tokenResponse = makeGetRequest(tokenUrl);
-            JSONObject tokenData = tokenResponse.getJSONObject("result");
-            String token = tokenData.getString("token");
-            String userId = tokenData.getString("user_id");
-
-            String playerUrl = String.format(
-                    "https://api.smashystream.top/api/v1/videofsh/%s?token=%s&user_id=%s",
-                    tmdb_id, token, userId
-            );
-
-            JSONObject playerResponse = makeGetRequest(playerUrl);
-            JSONObject data = playerResponse.getJSONObject("data");
-            JSONArray sources = data.getJSONArray("sources");
-
-            if (sources.length() == 0) {
-                return new HashMap<>();
-            }
-
-            String encryptedFile = sources.getJSONObject(0).getString("file");
+    private static JsonPaths.Result makeGetRequest(String urlString, JsonPaths paths) throws Exception {
+        return ScraperHttpClient.getJson(Endpoint.PLAYER, urlString, paths);
+    }
 
-            String decryptUrl = API + "/dec-vidstack";
-            JSONObject decryptPayload = new JSONObject();
-            decryptPayload.put("text", encryptedFile);
-            decryptPayload.put("type", "2");
+    /**
+     * Make HTTP POST request to the decrypt API and read only the given paths of the response
+     */
+    private static JsonPaths.Result makePostRequest(String urlString, JSONObject payload, JsonPaths paths) throws Exception {
+        return ScraperHttpClient.postJson(Endpoint.DECRYPT, urlString, payload, paths);
+    }
 
-            JSONObject decryptResponse = makePostRequest(decryptUrl, decryptPayload);
-            String decrypted = decryptResponse.getString("result");
+    /**
+     * Get all available stream qualities for a movie
+     */
+    public static QualityLadder getAllStreamQualities(String tmdb_id) {
+        StreamResult result = extractStreamUrlWithSubtitles(tmdb_id);
+        return result != null ? result.qualities : QualityLadder.empty();
+    }
 
-            return listParser(decrypted);
+    public static List<Movie> searchMovies(String query) {
+        return scrapeMoviesFromUrl(searchUrl(query));
+    }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting stream qualities: " + e.getMessage());
-            return new HashMap<>();
-        }
+    public static List<Movie> searchMovies(String query, CardBatchListener listener) {
+        return streamMoviesFromUrl(searchUrl(query), listener);
     }
 
-    public static List<Movie> searchMovies(String query) {
-        String searchUrl = BASE_URL + "/search?keyword=" + query.replace(" ", "+");
-        return scrapeMoviesFromUrl(searchUrl);
+    static String searchUrl(String query) {
+        return BASE_URL + "/search?keyword=" + query.replace(" ", "+");
     }
 
 
@@ -0,0 +1,356 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.klaus.kmoviesapp.models.Movie;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary copy of the last rendered home rows, read on launch before any network call.
+ * The file is memory-mapped rather than read, and a card is only decoded when it is asked for.
+ * Every string is stored once in a shared table, so the many repeated years, qualities and
+ * URL prefixes cost nothing extra.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * int magic, int version, long savedAt
+ * int rowCount, then per row: int nameIndex, int cardCount, int firstCardOffset
+ * cards: CARD_FIELDS string indexes each, -1 for null
+ * int stringCount, int[stringCount + 1] offsets into the string data
+ * UTF-8 string data
+ * </pre>
+ */
+public class HomeSnapshot {
+    private static final String TAG = "HomeSnapshot";
+    private static final String FILE_NAME = "home_snapshot.bin";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int MAGIC = 0x4B4D4853; // "KMHS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int ROW_ENTRY_SIZE = 12;
+    private static final int CARD_FIELDS = 9;
+    private static final int CARD_SIZE = CARD_FIELDS * 4;
+
+    // Home rows the app renders, by the name they are stored under
+    public static final String ROW_HOME_GRID = "home-grid";
+    public static final String ROW_TOP_WEEK = "home-top-week";
+
+    private static File file;
+    private static HomeSnapshot current;
+    private static final Map<String, List<Movie>> updatedRows = new LinkedHashMap<>();
+
+    // Serializes writers. The slow encode, write and fsync happen under this lock only,
+    // so load() on the main thread never waits behind the disk.
+    private static final Object writeLock = new Object();
+
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final int stringOffsetsAt;
+    private final int stringCount;
+    private final int stringDataAt;
+    private final String[] strings; // Decoded on first use
+
+    /**
+     * Check every offset and index in the file up front, so the lazy reads later can trust
+     * them. A file cut short or corrupted by a killed write is rejected here.
+     */
+    private HomeSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        int size = buffer.limit();
+        require(size >= HEADER_SIZE + 4);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a home snapshot");
+        }
+        rowCount = buffer.getInt(HEADER_SIZE);
+        require(rowCount >= 0 && HEADER_SIZE + 4 + (long) rowCount * ROW_ENTRY_SIZE <= size);
+        int rowsEnd = HEADER_SIZE + 4 + rowCount * ROW_ENTRY_SIZE;
+
+        // Rows are written back to back, each row's cards starting where the previous ended
+        long cardsEnd = rowsEnd;
+        for (int row = 0; row < rowCount; row++) {
+            int count = buffer.getInt(rowEntry(row) + 4);
+            require(count >= 0 && buffer.getInt(rowEntry(row) + 8) == cardsEnd);
+            cardsEnd += (long) count * CARD_SIZE;
+            require(cardsEnd + 4 <= size);
+        }
+        int stringCountAt = (int) cardsEnd;
+        stringCount = buffer.getInt(stringCountAt);
+        stringOffsetsAt = stringCountAt + 4;
+        require(stringCount >= 0 && stringOffsetsAt + (stringCount + 1L) * 4 <= size);
+        stringDataAt = stringOffsetsAt + (stringCount + 1) * 4;
+
+        int previous = 0;
+        for (int i = 0; i <= stringCount; i++) {
+            int offset = buffer.getInt(stringOffsetsAt + i * 4);
+            require(offset >= previous && (i > 0 || offset == 0));
+            previous = offset;
+        }
+        require(stringDataAt + (long) previous <= size);
+
+        for (int row = 0; row < rowCount; row++) {
+            int nameIndex = buffer.getInt(rowEntry(row));
+            require(nameIndex >= 0 && nameIndex < stringCount);
+        }
+        for (int at = rowsEnd; at < stringCountAt; at += 4) {
+            int index = buffer.getInt(at);
+            require(index >= -1 && index < stringCount);
+        }
+        strings = new String[stringCount];
+    }
+
+    private static void require(boolean valid) throws IOException {
+        if (!valid) {
+            throw new IOException("Corrupt home snapshot");
+        }
+    }
+
+    /**
+     * Set where the snapshot lives. Without it nothing is loaded or saved.
+     */
+    public static synchronized void init(Context context) {
+        file = new File(context.getFilesDir(), FILE_NAME);
+    }
+
+    /**
+     * Map the last saved snapshot, or return null if there is none yet or it is corrupt.
+     * Every row, card and string offset is checked once here, but no string is decoded
+     * until a card asks for it.
+     */
+    public static synchronized HomeSnapshot load() {
+        if (current != null) {
+            return current;
+        }
+        if (file == null || !file.exists()) {
+            return null;
+        }
+
+        try (RandomAccessFile in = new RandomAccessFile(file, "r");
+             FileChannel channel = in.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            current = new HomeSnapshot(mapped);
+            return current;
+        } catch (Exception e) {
+            Log.e(TAG, "Error loading home snapshot: " + e.getMessage());
+            // It would fail the same way on every launch; the next save writes a fresh one
+            file.delete();
+            return null;
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public String getRowName(int row) {
+        return string(buffer.getInt(rowEntry(row)));
+    }
+
+    public int getCardCount(int row) {
+        return buffer.getInt(rowEntry(row) + 4);
+    }
+
+    /**
+     * Decode one card of a row
+     */
+    public Movie getCard(int row, int index) {
+        int at = buffer.getInt(rowEntry(row) + 8) + index * CARD_SIZE;
+        Movie movie = new Movie();
+        movie.setId(string(buffer.getInt(at)));
+        movie.setTmdbId(string(buffer.getInt(at + 4)));
+        movie.setTitle(string(buffer.getInt(at + 8)));
+        movie.setYear(string(buffer.getInt(at + 12)));
+        movie.setQuality(string(buffer.getInt(at + 16)));
+        movie.setRating(string(buffer.getInt(at + 20)));
+        movie.setThumbnailUrl(string(buffer.getInt(at + 24)));
+        movie.setDetailUrl(string(buffer.getInt(at + 28)));
+        movie.setType(string(buffer.getInt(at + 32)));
+        return movie;
+    }
+
+    /**
+     * Every card of the named row, or an empty list if the snapshot does not have it
+     */
+    public List<Movie> getRow(String name) {
+        List<Movie> movies = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            if (name.equals(getRowName(row))) {
+                int count = getCardCount(row);
+                for (int i = 0; i < count; i++) {
+                    movies.add(MovieRegistry.canonical(getCard(row, i)));
+                }
+                break;
+            }
+        }
+        return movies;
+    }
+
+    private int rowEntry(int row) {
+        return HEADER_SIZE + 4 + row * ROW_ENTRY_SIZE;
+    }
+
+    private String string(int index) {
+        if (index < 0 || index >= stringCount) {
+            return null;
+        }
+        String value = strings[index];
+        if (value == null) {
+            int start = buffer.getInt(stringOffsetsAt + index * 4);
+            int end = buffer.getInt(stringOffsetsAt + (index + 1) * 4);
+            byte[] bytes = new byte[end - start];
+            // Absolute reads only, so concurrent readers never share a position
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(stringDataAt + start + i);
+            }
+            value = new String(bytes, UTF_8);
+            strings[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Record the cards a home row now shows and rewrite the snapshot in the background.
+     * Rows not updated since launch are carried over from the previous snapshot.
+     */
+    public static void saveRow(String name, List<Movie> movies) {
+        if (movies == null || movies.isEmpty()) {
+            return;
+        }
+        synchronized (HomeSnapshot.class) {
+            if (file == null) {
+                return;
+            }
+            updatedRows.put(name, new ArrayList<>(movies));
+        }
+        TaskEngine.submit(TaskEngine.Priority.PREFETCH, () -> {
+            write();
+            return null;
+        }, null);
+    }
+
+    private static void write() {
+        synchronized (writeLock) {
+            Map<String, List<Movie>> rows = new LinkedHashMap<>();
+            HomeSnapshot previous = load();
+            if (previous != null) {
+                for (int row = 0; row < previous.getRowCount(); row++) {
+                    String name = previous.getRowName(row);
+                    rows.put(name, previous.getRow(name));
+                }
+            }
+            File target;
+            synchronized (HomeSnapshot.class) {
+                rows.putAll(updatedRows);
+                target = file;
+            }
+
+            File tmp = new File(target.getPath() + ".tmp");
+            try {
+                try (FileOutputStream out = new FileOutputStream(tmp)) {
+                    out.write(encode(rows));
+                    // On disk before the rename, so a crash never leaves a renamed partial file
+                    out.getFD().sync();
+                }
+                if (!tmp.renameTo(target)) {
+                    throw new IOException("rename failed");
+                }
+                // The next load maps the new file; readers of the old mapping are unaffected
+                synchronized (HomeSnapshot.class) {
+                    current = null;
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Error saving home snapshot: " + e.getMessage());
+                tmp.delete();
+            }
+        }
+    }
+
+    private static byte[] encode(Map<String, List<Movie>> rows) throws IOException {
+        StringTable table = new StringTable();
+        int rowsEnd = HEADER_SIZE + 4 + rows.size() * ROW_ENTRY_SIZE;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(System.currentTimeMillis());
+
+        out.writeInt(rows.size());
+        int cardOffset = rowsEnd;
+        for (Map.Entry<String, List<Movie>> row : rows.entrySet()) {
+            out.writeInt(table.indexOf(row.getKey()));
+            out.writeInt(row.getValue().size());
+            out.writeInt(cardOffset);
+            cardOffset += row.getValue().size() * CARD_SIZE;
+        }
+
+        for (List<Movie> movies : rows.values()) {
+            for (Movie movie : movies) {
+                out.writeInt(table.indexOf(movie.getId()));
+                out.writeInt(table.indexOf(movie.getTmdbId()));
+                out.writeInt(table.indexOf(movie.getTitle()));
+                out.writeInt(table.indexOf(movie.getYear()));
+                out.writeInt(table.indexOf(movie.getQuality()));
+                out.writeInt(table.indexOf(movie.getRating()));
+                out.writeInt(table.indexOf(movie.getThumbnailUrl()));
+                out.writeInt(table.indexOf(movie.getDetailUrl()));
+                out.writeInt(table.indexOf(movie.getType()));
+            }
+        }
+
+        table.writeTo(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deduplicated strings in first-use order
+     */
+    private static class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<byte[]> encoded = new ArrayList<>();
+
+        int indexOf(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = encoded.size();
+                indexes.put(value, index);
+                encoded.add(value.getBytes(UTF_8));
+            }
+            return index;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(encoded.size());
+            int offset = 0;
+            out.writeInt(offset);
+            for (byte[] value : encoded) {
+                offset += value.length;
+                out.writeInt(offset);
+            }
+            for (byte[] value : encoded) {
+                out.write(value);
+            }
+        }
+    }
+}
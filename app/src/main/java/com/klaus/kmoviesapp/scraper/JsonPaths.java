@@ -0,0 +1,124 @@
+package com.klaus.kmoviesapp.scraper;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pulls a few values out of a JSON document without building a tree of it.
+ * Paths use dots for members and [n] for array elements, e.g. "data.sources[0].file".
+ * Only branches leading to a requested path are entered; everything else is skipped by the
+ * streaming reader without materializing strings. A path that ends on an object or array
+ * yields that subtree as compact JSON text.
+ */
+public class JsonPaths {
+    private final Set<String> paths = new HashSet<>();
+
+    public JsonPaths(String... paths) {
+        for (String path : paths) {
+            this.paths.add(path);
+        }
+    }
+
+    /**
+     * Values found for the requested paths
+     */
+    public static class Result {
+        private final Map<String, String> values = new HashMap<>();
+        private final Set<String> containers = new HashSet<>();
+
+        /**
+         * Value at the path, or null if it was missing or JSON null
+         */
+        public String get(String path) {
+            return values.get(path);
+        }
+
+        /**
+         * Whether an object or array was seen at the path (any prefix of a requested path)
+         */
+        public boolean hasContainer(String path) {
+            return containers.contains(path);
+        }
+    }
+
+    public Result read(Reader source) throws IOException {
+        Result result = new Result();
+        JsonReader reader = new JsonReader(source);
+        readValue(reader, "", result);
+        return result;
+    }
+
+    private void readValue(JsonReader reader, String path, Result result) throws IOException {
+        if (paths.contains(path)) {
+            capture(reader, path, result);
+            return;
+        }
+        if (!path.isEmpty() && !isPrefix(path)) {
+            reader.skipValue();
+            return;
+        }
+
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                result.containers.add(path);
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    readValue(reader, path.isEmpty() ? name : path + "." + name, result);
+                }
+                reader.endObject();
+                break;
+
+            case BEGIN_ARRAY:
+                result.containers.add(path);
+                reader.beginArray();
+                for (int i = 0; reader.hasNext(); i++) {
+                    readValue(reader, path + "[" + i + "]", result);
+                }
+                reader.endArray();
+                break;
+
+            default:
+                reader.skipValue();
+                break;
+        }
+    }
+
+    private static void capture(JsonReader reader, String path, Result result) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                result.values.put(path, reader.nextString());
+                break;
+            case BOOLEAN:
+                result.values.put(path, String.valueOf(reader.nextBoolean()));
+                break;
+            case NULL:
+                reader.nextNull();
+                break;
+            default:
+                result.containers.add(path);
+                result.values.put(path, JsonParser.parseReader(reader).toString());
+                break;
+        }
+    }
+
+    private boolean isPrefix(String path) {
+        for (String requested : paths) {
+            if (requested.length() > path.length() && requested.startsWith(path)) {
+                char next = requested.charAt(path.length());
+                if (next == '.' || next == '[') {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
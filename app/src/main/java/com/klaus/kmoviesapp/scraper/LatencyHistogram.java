@@ -0,0 +1,114 @@
+package com.klaus.kmoviesapp.scraper;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with fixed, roughly logarithmic buckets.
+ * Percentiles are reported as the upper bound of the bucket they fall in, which is
+ * precise enough for choosing timeouts and hedge delays. Every bucket is halved once per
+ * HALF_LIFE_MS, so an endpoint that got faster or slower is judged by its recent calls.
+ */
+public class LatencyHistogram {
+    private static final long[] BUCKET_BOUNDS_MS = {
+            25, 50, 75, 100, 150, 200, 300, 400, 500, 750,
+            1000, 1500, 2000, 3000, 5000, 7500, 10000, 15000, 30000
+    };
+
+    private static final long HALF_LIFE_MS = 5 * 60 * 1000;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong lastDecayAt = new AtomicLong(System.currentTimeMillis());
+
+    public void record(long latencyMs) {
+        decayIfDue();
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MS.length && latencyMs > BUCKET_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        total.incrementAndGet();
+    }
+
+    public void recordFailure() {
+        decayIfDue();
+        failures.incrementAndGet();
+    }
+
+    /**
+     * Halve every count once per half-life passed since the last decay. Only the thread that
+     * wins the swap of lastDecayAt applies it, so no half-life is ever applied twice.
+     */
+    private void decayIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastDecayAt.get();
+        long halvings = (now - last) / HALF_LIFE_MS;
+        if (halvings <= 0 || !lastDecayAt.compareAndSet(last, last + halvings * HALF_LIFE_MS)) {
+            return;
+        }
+        int shift = (int) Math.min(halvings, 63);
+        long sum = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            sum += shiftDown(counts, i, shift);
+        }
+        total.set(sum);
+        long value;
+        do {
+            value = failures.get();
+        } while (!failures.compareAndSet(value, value >> shift));
+    }
+
+    private static long shiftDown(AtomicLongArray array, int index, int shift) {
+        while (true) {
+            long value = array.get(index);
+            if (array.compareAndSet(index, value, value >> shift)) {
+                return value >> shift;
+            }
+        }
+    }
+
+    public long getCount() {
+        decayIfDue();
+        return total.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Latency below which the given fraction (0..1) of samples fall, or -1 without samples
+     */
+    public long percentile(double fraction) {
+        decayIfDue();
+        // Summed from the buckets, which total may briefly disagree with while they are halved
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        if (count == 0) {
+            return -1;
+        }
+
+        long target = (long) Math.ceil(count * fraction);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                // The overflow bucket has no upper bound; report the last finite one
+                return BUCKET_BOUNDS_MS[Math.min(i, BUCKET_BOUNDS_MS.length - 1)];
+            }
+        }
+        return BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1];
+    }
+
+    public String getSummary() {
+        return "n=" + getCount()
+                + ", p50=" + percentile(0.5) + "ms"
+                + ", p90=" + percentile(0.9) + "ms"
+                + ", p99=" + percentile(0.99) + "ms"
+                + ", failures=" + getFailures();
+    }
+}
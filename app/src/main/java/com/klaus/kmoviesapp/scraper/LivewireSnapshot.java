@@ -0,0 +1,297 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.util.Log;
+
+import com.google.gson.stream.JsonReader;
+import com.klaus.kmoviesapp.models.Movie;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Detail fields read from a Livewire wire:snapshot payload.
+ * The JSON is walked once with a streaming reader: known keys are picked up wherever they
+ * appear, and arrays under server/source or episode keys become typed lists. Livewire's
+ * [value, {"s": "arr"}] tuples need no special handling because their metadata objects
+ * carry none of the keys we read. Fields are first-wins, so several snapshots from one page
+ * can be read into the same instance.
+ */
+public class LivewireSnapshot {
+    private static final String TAG = "LivewireSnapshot";
+    private static final String TMDB_IMAGE_BASE = "https://image.tmdb.org/t/p/";
+    private static final int TOP_LEVEL_DEPTH = 2; // snapshot -> data -> property
+
+    private enum ListKind {
+        SERVERS,
+        EPISODES
+    }
+
+    public String tmdbId;
+    public String title;
+    public String year;
+    public String coverUrl;
+    public String posterUrl;
+    public String description;
+    public String rating;
+    public final List<Movie.StreamSource> servers = new ArrayList<>();
+    public final List<Episode> episodes = new ArrayList<>();
+
+    /**
+     * One entry of an episode list
+     */
+    public static class Episode {
+        public final String season;
+        public final String number;
+        public final String title;
+
+        Episode(String season, String number, String title) {
+            this.season = season;
+            this.number = number;
+            this.title = title;
+        }
+    }
+
+    /**
+     * Read one snapshot attribute value (already entity-decoded).
+     * Malformed JSON keeps whatever was read before the error.
+     */
+    public LivewireSnapshot read(String json) {
+        if (json == null || json.isEmpty()) {
+            return this;
+        }
+
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            readValue(reader, null, null, 0);
+        } catch (IOException | IllegalStateException e) {
+            Log.e(TAG, "Error reading snapshot: " + e.getMessage());
+        }
+        return this;
+    }
+
+    /**
+     * Copy every field found onto the movie, replacing values scraped from the DOM
+     */
+    public void applyTo(Movie movie) {
+        if (tmdbId != null) {
+            movie.setTmdbId(tmdbId);
+        }
+        if (title != null) {
+            movie.setTitle(title);
+        }
+        if (year != null) {
+            movie.setYear(year);
+        }
+        if (coverUrl != null) {
+            movie.setBackdropUrl(coverUrl);
+        }
+        if (posterUrl != null) {
+            movie.setThumbnailUrl(posterUrl);
+        }
+        if (description != null) {
+            movie.setDescription(description);
+        }
+        if (rating != null) {
+            movie.setRating(rating);
+        }
+        if (!servers.isEmpty()) {
+            movie.setStreamSources(new ArrayList<>(servers));
+            movie.setStreamUrl(servers.get(0).getUrl());
+        }
+    }
+
+    private void readValue(JsonReader reader, String key, ListKind listKind, int depth) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                if (listKind != null) {
+                    readListItem(reader, listKind, depth);
+                } else {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String name = reader.nextName();
+                        readValue(reader, name, listKindFor(name), depth + 1);
+                    }
+                    reader.endObject();
+                }
+                break;
+
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    readValue(reader, key, listKind, depth);
+                }
+                reader.endArray();
+                break;
+
+            case STRING:
+            case NUMBER:
+                String value = reader.nextString();
+                if (listKind == null && key != null) {
+                    record(key, value, depth);
+                }
+                break;
+
+            default:
+                reader.skipValue();
+                break;
+        }
+    }
+
+    /**
+     * Read one object of a server or episode list. Nested objects are treated as further
+     * items, which covers lists keyed by id as well as plain arrays.
+     */
+    private void readListItem(JsonReader reader, ListKind listKind, int depth) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName().toLowerCase(Locale.US);
+            switch (reader.peek()) {
+                case STRING:
+                case NUMBER:
+                    fields.put(name, reader.nextString());
+                    break;
+                case BEGIN_OBJECT:
+                case BEGIN_ARRAY:
+                    readValue(reader, name, listKind, depth + 1);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (listKind == ListKind.SERVERS) {
+            String url = first(fields, "url", "link", "src", "embed", "file");
+            if (url != null) {
+                String name = first(fields, "name", "label", "title", "server");
+                servers.add(new Movie.StreamSource(name != null ? name : "Server " + servers.size(),
+                        url, servers.size()));
+            }
+        } else {
+            String number = first(fields, "episode_number", "episode", "number");
+            if (number != null) {
+                episodes.add(new Episode(first(fields, "season_number", "season"), number,
+                        first(fields, "title", "name")));
+            }
+        }
+    }
+
+    private void record(String key, String value, int depth) {
+        if (value.isEmpty()) {
+            return;
+        }
+
+        switch (key.toLowerCase(Locale.US)) {
+            case "tmdbid":
+            case "tmdb_id":
+                if (tmdbId == null && isDigits(value)) {
+                    tmdbId = value;
+                }
+                break;
+
+            case "title":
+                if (title == null) {
+                    title = value;
+                }
+                break;
+
+            case "name":
+                // "name" is common in nested objects (genres, cast), so only trust it near the top
+                if (title == null && depth <= TOP_LEVEL_DEPTH) {
+                    title = value;
+                }
+                break;
+
+            case "year":
+            case "release_year":
+            case "release_date":
+            case "first_air_date":
+            case "released":
+                if (year == null && value.length() >= 4 && isDigits(value.substring(0, 4))) {
+                    year = value.substring(0, 4);
+                }
+                break;
+
+            case "cover":
+            case "backdrop":
+            case "backdrop_path":
+                if (coverUrl == null) {
+                    coverUrl = imageUrl(value, "w1280");
+                }
+                break;
+
+            case "poster":
+            case "poster_path":
+                if (posterUrl == null) {
+                    posterUrl = imageUrl(value, "w500");
+                }
+                break;
+
+            case "overview":
+            case "description":
+            case "plot":
+                if (description == null) {
+                    description = value;
+                }
+                break;
+
+            case "rating":
+            case "vote_average":
+                if (rating == null && !value.equals("0") && !value.equals("0.0")) {
+                    rating = value;
+                }
+                break;
+        }
+    }
+
+    private static ListKind listKindFor(String key) {
+        String lower = key.toLowerCase(Locale.US);
+        if (lower.contains("server") || lower.contains("source")) {
+            return ListKind.SERVERS;
+        }
+        if (lower.contains("episode")) {
+            return ListKind.EPISODES;
+        }
+        return null;
+    }
+
+    /**
+     * Absolute image URL; bare TMDB paths ("/abc.jpg") are resolved against the TMDB CDN
+     */
+    private static String imageUrl(String value, String size) {
+        String url = value.replace("\\/", "/");
+        if (url.startsWith("/") && !url.startsWith("//")) {
+            return TMDB_IMAGE_BASE + size + url;
+        }
+        return url;
+    }
+
+    private static String first(Map<String, String> fields, String... keys) {
+        for (String key : keys) {
+            String value = fields.get(key);
+            if (value != null && !value.isEmpty()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isDigits(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,292 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.klaus.kmoviesapp.utils.Constants;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+/**
+ * Hedged page requests across the catalog mirror domains.
+ * A page on any known mirror is requested from the fastest mirror first (by median time
+ * to response headers). If no response has arrived within that mirror's p90, the same
+ * path is requested from the next mirror, and whichever answers first is used; the other
+ * call is cancelled. Only a 2xx settles the race; a 4xx falls through to the next mirror
+ * without counting against its circuit. Mirrors whose circuit is open are skipped, and the
+ * wait for headers is bounded by the first mirror's adaptive timeout and the current deadline.
+ * A copy of the page stored by {@link PageCache} under any mirror is used before any of this.
+ * URLs on other hosts are fetched directly.
+ */
+public class MirrorFetcher {
+    private static final String TAG = "MirrorFetcher";
+    private static final int MIN_SAMPLES = 5;
+    private static final long DEFAULT_HEDGE_DELAY_MS = 1500;
+    private static final long MIN_HEDGE_DELAY_MS = 100;
+
+    private static final List<Mirror> mirrors = new ArrayList<>();
+
+    static {
+        mirrors.add(new Mirror(FMoviesScraper.BASE_URL));
+        mirrors.add(new Mirror(FMoviesScraper.BASE_URL2));
+        mirrors.add(new Mirror(Constants.BASE_URL));
+    }
+
+    /**
+     * A mirror host, with the endpoint tracking its latencies and circuit
+     */
+    public static class Mirror {
+        public final String baseUrl;
+        public final Endpoint endpoint;
+        public final LatencyHistogram latency;
+
+        Mirror(String baseUrl) {
+            this.baseUrl = baseUrl;
+            this.endpoint = Endpoint.forPage(baseUrl);
+            this.latency = endpoint.latency;
+        }
+
+        /**
+         * Median latency, or MAX_VALUE while there are too few samples to judge
+         */
+        long rank() {
+            return latency.getCount() >= MIN_SAMPLES ? latency.percentile(0.5) : Long.MAX_VALUE;
+        }
+
+        long hedgeDelayMs() {
+            if (latency.getCount() < MIN_SAMPLES) {
+                return DEFAULT_HEDGE_DELAY_MS;
+            }
+            return Math.max(MIN_HEDGE_DELAY_MS, latency.percentile(0.9));
+        }
+    }
+
+    private static class Outcome {
+        final Mirror mirror;
+        final Call call;
+        final Response response;
+        final IOException error;
+
+        Outcome(Mirror mirror, Call call, Response response, IOException error) {
+            this.mirror = mirror;
+            this.call = call;
+            this.response = response;
+            this.error = error;
+        }
+    }
+
+    private MirrorFetcher() {
+    }
+
+    /**
+     * Open an HTML page, hedging across mirrors when the URL is on one of them.
+     * The returned response's request URL tells which mirror answered. The caller must close it.
+     */
+    public static Response openPage(String url) throws IOException {
+        Mirror origin = mirrorFor(url);
+        if (origin == null) {
+            return ScraperHttpClient.openPage(url);
+        }
+        String path = url.substring(origin.baseUrl.length());
+        List<Mirror> order = rankedMirrors();
+
+        // Whichever mirror answered last time may have left a stored copy
+        for (Mirror mirror : order) {
+            Response cached = PageCache.open(mirror.baseUrl + path, url);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long timeoutMs = order.get(0).endpoint.timeoutMs();
+
+        final BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        final AtomicBoolean settled = new AtomicBoolean();
+        List<Call> calls = new ArrayList<>();
+        List<Mirror> pending = new ArrayList<>();
+        int[] cursor = {0};
+        Outcome winner = null;
+        boolean timedOut = false;
+        IOException lastError = null;
+
+        try {
+            Mirror first = startNext(order, cursor, path, outcomes, settled, calls, pending);
+            if (first == null) {
+                throw new Endpoint.CircuitOpenException("every mirror of " + path);
+            }
+            long giveUpAtNs = System.nanoTime() + timeoutMs * 1000000;
+            long hedgeAtNs = System.nanoTime() + first.hedgeDelayMs() * 1000000;
+
+            while (true) {
+                boolean canHedge = cursor[0] < order.size();
+                long waitUntilNs = canHedge ? Math.min(hedgeAtNs, giveUpAtNs) : giveUpAtNs;
+                Outcome outcome = outcomes.poll(Math.max(0, waitUntilNs - System.nanoTime()), TimeUnit.NANOSECONDS);
+
+                if (outcome == null) {
+                    if (System.nanoTime() >= giveUpAtNs) {
+                        timedOut = true;
+                        throw new SocketTimeoutException("No mirror answered " + path + " within " + timeoutMs + "ms");
+                    }
+                    // Hedge once the mirror we are waiting on is slower than it usually is
+                    Mirror hedge = startNext(order, cursor, path, outcomes, settled, calls, pending);
+                    if (hedge != null) {
+                        Log.d(TAG, "No response yet, hedging to " + hedge.baseUrl);
+                        hedgeAtNs = System.nanoTime() + hedge.hedgeDelayMs() * 1000000;
+                    }
+                    continue;
+                }
+
+                pending.remove(outcome.mirror);
+                if (outcome.response != null) {
+                    winner = outcome;
+                    return outcome.response;
+                }
+
+                lastError = outcome.error;
+                Log.w(TAG, outcome.mirror.baseUrl + " failed: " + lastError.getMessage());
+                if (pending.isEmpty()) {
+                    // Everything in flight failed, so move on without waiting for a hedge delay
+                    Mirror next = startNext(order, cursor, path, outcomes, settled, calls, pending);
+                    if (next == null) {
+                        throw lastError;
+                    }
+                    hedgeAtNs = System.nanoTime() + next.hedgeDelayMs() * 1000000;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted fetching " + url);
+        } finally {
+            settled.set(true);
+            if (timedOut) {
+                for (Mirror mirror : pending) {
+                    mirror.endpoint.onFailure();
+                }
+            }
+            // Cancel the losers and anything still in flight; only the winner's call stays open
+            for (Call call : calls) {
+                if (winner == null || call != winner.call) {
+                    call.cancel();
+                }
+            }
+            // A response that won the race after we gave up must still be released
+            Outcome unclaimed;
+            while ((unclaimed = outcomes.poll()) != null) {
+                if (unclaimed.response != null && unclaimed != winner) {
+                    unclaimed.response.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Start the next mirror in order whose circuit lets a call through, or return null
+     */
+    private static Mirror startNext(List<Mirror> order, int[] cursor, String path,
+                                    BlockingQueue<Outcome> outcomes, AtomicBoolean settled,
+                                    List<Call> calls, List<Mirror> pending) throws IOException {
+        while (cursor[0] < order.size()) {
+            Mirror mirror = order.get(cursor[0]++);
+            if (mirror.endpoint.isAvailable()) {
+                calls.add(start(mirror, path, outcomes, settled));
+                pending.add(mirror);
+                return mirror;
+            }
+            Log.d(TAG, "Skipping " + mirror.baseUrl + ", circuit open");
+        }
+        return null;
+    }
+
+    private static Call start(final Mirror mirror, String path, final BlockingQueue<Outcome> outcomes,
+                              final AtomicBoolean settled) throws IOException {
+        // Bounds the winner's body as well, which the race itself stops watching once it is handed over
+        final long timeoutMs = mirror.endpoint.timeoutMs();
+        final boolean deadlineCapped = timeoutMs < mirror.endpoint.adaptiveTimeoutMs();
+        final long startNs = System.nanoTime();
+        Call call = ScraperHttpClient.get().newCall(ScraperHttpClient.pageRequest(mirror.baseUrl + path).build());
+        call.timeout().timeout(timeoutMs, TimeUnit.MILLISECONDS);
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    if (response.code() >= 500 || response.body() == null) {
+                        mirror.endpoint.onFailure();
+                    } else {
+                        // The host is up but lays this path out differently; try the next mirror
+                        mirror.endpoint.onAbandoned();
+                    }
+                    response.close();
+                    outcomes.offer(new Outcome(mirror, call, null, new IOException("HTTP " + response.code())));
+                    return;
+                }
+                mirror.endpoint.onSuccess((System.nanoTime() - startNs) / 1000000);
+
+                // Only the first good response is handed over; later ones are released here
+                if (settled.compareAndSet(false, true)) {
+                    outcomes.offer(new Outcome(mirror, call, response, null));
+                } else {
+                    response.close();
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                // The call timeout also cancels the call, so tell the two apart by elapsed time
+                boolean timedOut = (System.nanoTime() - startNs) / 1000000 >= timeoutMs;
+                if (timedOut ? deadlineCapped : call.isCanceled()) {
+                    mirror.endpoint.onAbandoned();
+                } else {
+                    mirror.endpoint.onFailure();
+                }
+                outcomes.offer(new Outcome(mirror, call, null, e));
+            }
+        });
+        return call;
+    }
+
+    private static Mirror mirrorFor(String url) {
+        for (Mirror mirror : mirrors) {
+            if (url.startsWith(mirror.baseUrl)
+                    && (url.length() == mirror.baseUrl.length() || url.charAt(mirror.baseUrl.length()) == '/')) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mirrors by median latency. Mirrors without enough samples keep their configured order
+     * after the measured ones, so the primary is tried first until there is data.
+     */
+    private static List<Mirror> rankedMirrors() {
+        List<Mirror> order = new ArrayList<>(mirrors);
+        Collections.sort(order, (a, b) -> Long.compare(a.rank(), b.rank()));
+        return order;
+    }
+
+    public static List<Mirror> getMirrors() {
+        return Collections.unmodifiableList(mirrors);
+    }
+
+    public static String getStatsSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Mirror mirror : mirrors) {
+            summary.append(mirror.baseUrl).append(": ").append(mirror.latency.getSummary())
+                    .append(mirror.endpoint.isCircuitOpen() ? " (circuit open)" : "").append('\n');
+        }
+        return summary.toString();
+    }
+}
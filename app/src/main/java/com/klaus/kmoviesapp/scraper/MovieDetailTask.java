@@ -1,11 +1,12 @@
 package com.klaus.kmoviesapp.scraper;
 
-import android.os.AsyncTask;
 import android.util.Log;
 
+import androidx.lifecycle.LifecycleOwner;
+
 import com.klaus.kmoviesapp.models.Movie;
 
-public class MovieDetailTask extends AsyncTask<String, Void, Movie> {
+public class MovieDetailTask {
     private static final String TAG = "MovieDetailTask";
 
     public interface MovieDetailCallback {
@@ -14,32 +15,44 @@ public class MovieDetailTask extends AsyncTask<String, Void, Movie> {
     }
 
     private final MovieDetailCallback callback;
+    private LifecycleOwner owner;
 
     public MovieDetailTask(MovieDetailCallback callback) {
         this.callback = callback;
     }
 
-    @Override
-    protected Movie doInBackground(String... params) {
-        if (params.length == 0) {
-            return null;
-        }
-
-        String detailUrl = params[0];
-        try {
-            return FMoviesScraper.scrapeMovieDetails(detailUrl);
-        } catch (Exception e) {
-            Log.e(TAG, "Error loading movie details: " + e.getMessage());
-            return null;
-        }
+    /**
+     * Cancel the scrape when the given Activity or Fragment is destroyed
+     */
+    public MovieDetailTask bindTo(LifecycleOwner owner) {
+        this.owner = owner;
+        return this;
     }
 
-    @Override
-    protected void onPostExecute(Movie movie) {
-        if (movie != null && movie.getTitle() != null) {
-            callback.onDetailLoaded(movie);
-        } else {
-            callback.onDetailError("Failed to load movie details");
+    public TaskEngine.TaskHandle execute(String detailUrl) {
+        TaskEngine.TaskHandle handle = TaskEngine.submit(TaskEngine.Priority.VISIBLE, () -> {
+            // Warm the stream token while the detail page downloads, so Play can skip that round trip
+            VidstackTokenProvider.prefetch();
+            return FMoviesScraper.scrapeMovieDetails(detailUrl);
+        }, new TaskEngine.Callback<Movie>() {
+            @Override
+            public void onSuccess(Movie movie) {
+                if (movie != null && movie.getTitle() != null) {
+                    callback.onDetailLoaded(movie);
+                } else {
+                    callback.onDetailError("Failed to load movie details");
+                }
+            }
+
+            @Override
+            public void onError(Exception error) {
+                Log.e(TAG, "Error loading movie details: " + error.getMessage());
+                callback.onDetailError("Failed to load movie details");
+            }
+        });
+        if (owner != null) {
+            handle.bindTo(owner);
         }
+        return handle;
     }
 }
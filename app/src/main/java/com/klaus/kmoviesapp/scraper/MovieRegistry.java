@@ -0,0 +1,153 @@
+package com.klaus.kmoviesapp.scraper;
+
+import com.klaus.kmoviesapp.models.Movie;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide identity map of titles keyed by detail URL.
+ * Every list the scraper or the local stores produce passes through here, so a title shown in
+ * several rows is one Movie instance, and low-cardinality fields such as year, quality, type
+ * and genre share one String each. Entries are weakly held and go away with the last list
+ * that shows them.
+ *
+ * A re-scraped card whose visible fields are unchanged resolves to the existing instance.
+ * One that changed replaces it, so list diffs still see the change; what the old instance
+ * knew that the new card does not (tmdbId, detail fields) is carried over.
+ */
+public class MovieRegistry {
+    private static final Map<String, TitleRef> titles = new HashMap<>();
+    private static final ReferenceQueue<Movie> collected = new ReferenceQueue<>();
+    private static final Map<String, String> pool = new HashMap<>();
+
+    private static final AtomicLong lookups = new AtomicLong();
+    private static final AtomicLong reused = new AtomicLong();
+
+    private static class TitleRef extends WeakReference<Movie> {
+        final String detailUrl;
+
+        TitleRef(Movie movie, String detailUrl) {
+            super(movie, collected);
+            this.detailUrl = detailUrl;
+        }
+    }
+
+    private MovieRegistry() {
+    }
+
+    /**
+     * The canonical instance for a title, registering this one if it is new or has changed
+     */
+    public static synchronized Movie canonical(Movie movie) {
+        if (movie == null) {
+            return null;
+        }
+        lookups.incrementAndGet();
+        purge();
+
+        String detailUrl = movie.getDetailUrl();
+        TitleRef ref = detailUrl != null ? titles.get(detailUrl) : null;
+        Movie existing = ref != null ? ref.get() : null;
+
+        if (existing != null && existing.hasSameCard(movie)) {
+            // Only fields the cards never show can be new here, so filling them in place is safe
+            existing.copyMissingFrom(movie);
+            reused.incrementAndGet();
+            return existing;
+        }
+
+        if (existing != null) {
+            movie.copyMissingFrom(existing);
+        }
+        internFields(movie);
+        if (detailUrl != null) {
+            titles.put(detailUrl, new TitleRef(movie, detailUrl));
+        }
+        return movie;
+    }
+
+    /**
+     * The live instance for a detail URL, or null if no screen holds that title any more
+     */
+    public static synchronized Movie get(String detailUrl) {
+        if (detailUrl == null) {
+            return null;
+        }
+        TitleRef ref = titles.get(detailUrl);
+        return ref != null ? ref.get() : null;
+    }
+
+    /**
+     * Attach what a detail page scrape found to the title's canonical instance, if one is
+     * live, without touching its card fields. Newer detail values replace older ones.
+     */
+    public static synchronized void attachDetails(Movie detailed) {
+        if (detailed == null || detailed.getDetailUrl() == null) {
+            return;
+        }
+        TitleRef ref = titles.get(detailed.getDetailUrl());
+        Movie existing = ref != null ? ref.get() : null;
+        if (existing != null && existing != detailed) {
+            existing.applyDetailsFrom(detailed);
+        }
+    }
+
+    /**
+     * Replace every title in a list with its canonical instance, in place
+     */
+    public static List<Movie> canonicalize(List<Movie> movies) {
+        for (int i = 0; i < movies.size(); i++) {
+            movies.set(i, canonical(movies.get(i)));
+        }
+        return movies;
+    }
+
+    private static void internFields(Movie movie) {
+        movie.setYear(intern(movie.getYear()));
+        movie.setQuality(intern(movie.getQuality()));
+        movie.setType(intern(movie.getType()));
+        movie.setGenre(intern(movie.getGenre()));
+        movie.setCountry(intern(movie.getCountry()));
+        movie.setRating(intern(movie.getRating()));
+        movie.setDuration(intern(movie.getDuration()));
+    }
+
+    private static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = pool.get(value);
+        if (pooled == null) {
+            pool.put(value, value);
+            pooled = value;
+        }
+        return pooled;
+    }
+
+    /**
+     * Drop entries whose title is no longer referenced anywhere
+     */
+    private static void purge() {
+        TitleRef ref;
+        while ((ref = (TitleRef) collected.poll()) != null) {
+            if (titles.get(ref.detailUrl) == ref) {
+                titles.remove(ref.detailUrl);
+            }
+        }
+    }
+
+    public static synchronized int size() {
+        purge();
+        return titles.size();
+    }
+
+    public static synchronized String getStatsSummary() {
+        return "titles: " + size() + " live, " + lookups.get() + " lookups, "
+                + reused.get() + " reused, " + pool.size() + " pooled strings";
+    }
+}
@@ -0,0 +1,219 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.klaus.kmoviesapp.utils.Constants;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okio.Okio;
+
+/**
+ * Persistent HTTP cache for the site's catalog list pages, with stale-while-revalidate.
+ * Pages are stored by OkHttp's disk cache for up to MAX_CACHE_AGE whatever caching headers
+ * the site sends, keeping its ETag and Last-Modified. A page younger than the TTL is served
+ * as is. An older one is still served immediately, and a conditional request refreshes it in
+ * the background; only a changed page is downloaded again.
+ */
+public class PageCache {
+    private static final String TAG = "PageCache";
+    private static final String DIR_NAME = "http_pages";
+
+    private static volatile Cache cache;
+    // Stored pages are fresh to OkHttp for MAX_CACHE_AGE, so this serves anything younger
+    private static final CacheControl CACHED_ONLY = new CacheControl.Builder().onlyIfCached().build();
+
+    private static volatile long ttlMs = TimeUnit.SECONDS.toMillis(Constants.PAGE_CACHE_TTL);
+    private static final Set<String> revalidating = new HashSet<>();
+
+    // First path segments of the filtered catalog lists, e.g. /genre/action
+    private static final Set<String> LIST_SECTIONS = new HashSet<>(Arrays.asList("genre", "country", "year"));
+
+    /**
+     * Marks 200 HTML catalog list pages storable for MAX_CACHE_AGE, replacing whatever the
+     * site sent. Detail and search pages, and error pages, keep the site's headers, so they
+     * are never served from the cache as fresh. 304s are rewritten too, so a revalidated page
+     * starts a new lifetime; they only ever answer a conditional request for a stored 200.
+     */
+    static final Interceptor STORE_PAGES = chain -> {
+        Response response = chain.proceed(chain.request());
+        boolean storable = response.code() == 304 || (response.code() == 200 && isPage(response));
+        if (!"GET".equals(chain.request().method()) || !storable || !isListPage(chain.request().url())) {
+            return response;
+        }
+        Response.Builder builder = response.newBuilder()
+                .header("Cache-Control", "public, max-age=" + Constants.MAX_CACHE_AGE)
+                .removeHeader("Pragma")
+                .removeHeader("Expires");
+        String vary = response.header("Vary");
+        if (vary != null && vary.contains("*")) {
+            builder.removeHeader("Vary");
+        }
+        return builder.build();
+    };
+
+    private PageCache() {
+    }
+
+    /**
+     * Open the disk cache. Must run before the shared client is first used; without it
+     * pages are always fetched from the network.
+     */
+    public static void init(Context context) {
+        cache = new Cache(new File(context.getCacheDir(), DIR_NAME), Constants.CACHE_SIZE);
+    }
+
+    static Cache cache() {
+        return cache;
+    }
+
+    /**
+     * How long a stored page is served without revalidating it
+     */
+    public static void setTtl(long duration, TimeUnit unit) {
+        ttlMs = unit.toMillis(duration);
+    }
+
+    /**
+     * The stored page for a URL if it is younger than MAX_CACHE_AGE, or null.
+     * A page past the TTL is returned anyway and revalidated in the background.
+     * key is the URL the caller asked for, whose parsed copy in DocumentCache is dropped
+     * when revalidation finds the page changed; it differs from url when a mirror stored it.
+     * The caller must close the response.
+     */
+    static Response open(String url, String key) {
+        if (cache == null) {
+            return null;
+        }
+
+        Response response;
+        try {
+            response = ScraperHttpClient.get().newCall(ScraperHttpClient.pageRequest(url)
+                    .cacheControl(CACHED_ONLY)
+                    .build()).execute();
+        } catch (IOException e) {
+            Log.w(TAG, "Cache lookup failed for " + url + ": " + e.getMessage());
+            return null;
+        }
+        // A miss is reported as 504 Unsatisfiable Request
+        if (response.cacheResponse() == null || !response.isSuccessful()) {
+            response.close();
+            return null;
+        }
+
+        long ageMs = System.currentTimeMillis() - response.receivedResponseAtMillis();
+        if (ageMs > ttlMs) {
+            Log.d(TAG, "Serving stale " + url + " (" + ageMs / 1000 + "s old), revalidating");
+            revalidate(url, key);
+        } else {
+            Log.d(TAG, "Serving cached " + url + " (" + ageMs / 1000 + "s old)");
+        }
+        return response;
+    }
+
+    /**
+     * Refresh a stored page with a conditional request. OkHttp sends its validators and
+     * updates the entry whether the site answers 304 or a new page.
+     */
+    private static void revalidate(final String url, final String key) {
+        if (Endpoint.forPage(url).isCircuitOpen()) {
+            return;
+        }
+        synchronized (revalidating) {
+            if (!revalidating.add(url)) {
+                return;
+            }
+        }
+
+        ScraperHttpClient.get().newCall(ScraperHttpClient.pageRequest(url)
+                .cacheControl(new CacheControl.Builder().maxAge(0, TimeUnit.SECONDS).build())
+                .build()).enqueue(new Callback() {
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                try {
+                    // The new copy is only stored once its body has been read to the end
+                    if (response.body() != null) {
+                        response.body().source().readAll(Okio.blackhole());
+                    }
+                    Response network = response.networkResponse();
+                    if (network != null && network.code() == 200) {
+                        Log.d(TAG, url + " changed, refreshed cache");
+                        DocumentCache.invalidate(key);
+                    } else {
+                        Log.d(TAG, url + " not modified");
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Revalidation of " + url + " failed: " + e.getMessage());
+                } finally {
+                    response.close();
+                    done(url);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                Log.w(TAG, "Revalidation of " + url + " failed: " + e.getMessage());
+                done(url);
+            }
+        });
+    }
+
+    private static void done(String url) {
+        synchronized (revalidating) {
+            revalidating.remove(url);
+        }
+    }
+
+    /**
+     * The home page, a top-level section such as /movie or /top-imdb, or a filtered list
+     * such as /genre/action. Detail pages and search results are not lists.
+     */
+    private static boolean isListPage(HttpUrl url) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : url.pathSegments()) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        if (segments.isEmpty()) {
+            return true;
+        }
+        if (segments.size() == 1) {
+            return !"search".equals(segments.get(0));
+        }
+        return segments.size() == 2 && LIST_SECTIONS.contains(segments.get(0));
+    }
+
+    private static boolean isPage(Response response) {
+        MediaType contentType = response.body() != null ? response.body().contentType() : null;
+        return contentType != null && "html".equals(contentType.subtype());
+    }
+
+    public static String getStatsSummary() {
+        Cache current = cache;
+        if (current == null) {
+            return "page cache disabled";
+        }
+        return "page cache: requests=" + current.requestCount()
+                + " hits=" + current.hitCount()
+                + " network=" + current.networkCount();
+    }
+}
@@ -0,0 +1,144 @@
+package com.klaus.kmoviesapp.scraper;
+
+import org.jsoup.nodes.Element;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Order-preserving parallel parse of the elements of an already-fetched page.
+ * Jsoup nodes fill caches lazily and are not safe to read from several threads, so each worker
+ * gets a detached clone of its chunk, made on the calling thread before the chunk is submitted.
+ * The caller parses the first chunk itself on the original elements once every clone is made.
+ * Lists below the threshold are parsed sequentially on the caller.
+ * A failing element is recorded and skipped without affecting the rest of the batch.
+ */
+public class ParallelParser {
+    private static final int SEQUENTIAL_THRESHOLD = 48;
+
+    // Leave a core for the UI thread
+    private static final int WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService executor = Executors.newFixedThreadPool(WORKERS - 1, r -> {
+        Thread thread = new Thread(r, "card-parser-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Parses one element; returning null drops it from the output
+     */
+    public interface ItemParser<T> {
+        T parse(Element element) throws Exception;
+    }
+
+    /**
+     * An element that threw while being parsed
+     */
+    public static class Failure {
+        public final int index;
+        public final Exception error;
+
+        Failure(int index, Exception error) {
+            this.index = index;
+            this.error = error;
+        }
+    }
+
+    public static class Result<T> {
+        public final List<T> items = new ArrayList<>();
+        public final List<Failure> failures = new ArrayList<>();
+    }
+
+    private ParallelParser() {
+    }
+
+    public static <T> Result<T> parse(List<Element> input, ItemParser<T> parser) {
+        int size = input.size();
+        int chunks = size < SEQUENTIAL_THRESHOLD ? 1 : Math.min(WORKERS, size);
+
+        // Each chunk writes its own range, so slots need no locking and keep document order
+        Object[] parsed = new Object[size];
+        List<List<Failure>> chunkFailures = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int c = 0; c < chunks; c++) {
+            chunkFailures.add(new ArrayList<Failure>());
+        }
+        for (int c = 1; c < chunks; c++) {
+            final int from = chunkStart(size, chunks, c);
+            final List<Element> detached = detach(input, from, chunkStart(size, chunks, c + 1));
+            final List<Failure> failures = chunkFailures.get(c);
+            futures.add(executor.submit(() -> parseRange(detached, parser, parsed, failures, from)));
+        }
+
+        // Workers only hold clones, so the caller now has the original elements to itself
+        parseRange(input.subList(0, chunkStart(size, chunks, 1)), parser, parsed, chunkFailures.get(0), 0);
+
+        Result<T> result = new Result<>();
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                // The owning task was cancelled; workers may still be writing, so drop everything
+                for (Future<?> pending : futures) {
+                    pending.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                return new Result<>();
+            } catch (ExecutionException e) {
+                // Per-element failures are caught inside the chunk, so this is unexpected
+                result.failures.add(new Failure(-1, e));
+            }
+        }
+
+        for (List<Failure> failures : chunkFailures) {
+            result.failures.addAll(failures);
+        }
+        for (Object item : parsed) {
+            if (item != null) {
+                @SuppressWarnings("unchecked")
+                T typed = (T) item;
+                result.items.add(typed);
+            }
+        }
+        Collections.sort(result.failures, (a, b) -> Integer.compare(a.index, b.index));
+        return result;
+    }
+
+    private static int chunkStart(int size, int chunks, int chunk) {
+        return (int) ((long) size * chunk / chunks);
+    }
+
+    /**
+     * Deep copies with no parent, keeping the base URI so abs: attributes still resolve
+     */
+    private static List<Element> detach(List<Element> input, int from, int to) {
+        List<Element> detached = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            Element original = input.get(i);
+            Element clone = original.clone();
+            clone.setBaseUri(original.baseUri());
+            detached.add(clone);
+        }
+        return detached;
+    }
+
+    private static <T> void parseRange(List<Element> elements, ItemParser<T> parser, Object[] parsed,
+                                       List<Failure> failures, int offset) {
+        for (int i = 0; i < elements.size(); i++) {
+            try {
+                parsed[offset + i] = parser.parse(elements.get(i));
+            } catch (Exception e) {
+                failures.add(new Failure(offset + i, e));
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.klaus.kmoviesapp.scraper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Typed list of stream variants parsed from a decrypted source list.
+ * Used for both video qualities and subtitle tracks. Entries are sorted by resolution,
+ * highest first; entries whose label is not a resolution (languages, "default") keep
+ * their source order after them.
+ */
+public class QualityLadder {
+    public static final String DEFAULT_LABEL = "default";
+
+    private final List<Entry> entries;
+
+    /**
+     * One labelled URL. Resolution is the label's pixel height, or 0 when it has none.
+     */
+    public static class Entry {
+        public final int resolution;
+        public final String label;
+        public final String url;
+
+        public Entry(String label, String url) {
+            this.label = label;
+            this.url = url;
+            this.resolution = resolutionOf(label);
+        }
+    }
+
+    private QualityLadder(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static QualityLadder empty() {
+        return new QualityLadder(Collections.<Entry>emptyList());
+    }
+
+    /**
+     * Build a ladder from already-labelled entries (e.g. a cached copy)
+     */
+    public static QualityLadder of(List<Entry> entries) {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sortByResolution(sorted);
+        return new QualityLadder(sorted);
+    }
+
+    /**
+     * Scan a decrypted list in one pass. Handles the formats the decrypt endpoint returns:
+     * "[1080p]url1, [720p]url2", "[Arabic]url1, [English]url2", "url1 or url2" and "url1, url2".
+     * Untagged items are joined under the "default" label; a repeated label keeps the last URL.
+     * Only labels and URLs are copied out of the input.
+     */
+    public static QualityLadder parse(String text) {
+        List<Entry> entries = new ArrayList<>();
+        if (text == null) {
+            return new QualityLadder(entries);
+        }
+
+        StringBuilder untagged = null;
+        int length = text.length();
+        int itemStart = 0;
+        int i = 0;
+
+        while (i <= length) {
+            // Items are separated by ',' or " or "
+            int separatorLength = 0;
+            if (i == length) {
+                separatorLength = 1;
+            } else if (text.charAt(i) == ',') {
+                separatorLength = 1;
+            } else if (text.regionMatches(i, " or ", 0, 4)) {
+                separatorLength = 4;
+            }
+
+            if (separatorLength == 0) {
+                i++;
+                continue;
+            }
+
+            int start = skipSpaces(text, itemStart, i);
+            int end = trimEnd(text, start, i);
+            if (start < end) {
+                int close = text.charAt(start) == '[' ? text.indexOf(']', start) : -1;
+                if (close >= 0 && close < end) {
+                    int labelStart = skipSpaces(text, start + 1, close);
+                    int labelEnd = trimEnd(text, labelStart, close);
+                    int urlStart = skipSpaces(text, close + 1, end);
+                    if (urlStart < end) {
+                        put(entries, text.substring(labelStart, labelEnd), text.substring(urlStart, end));
+                    }
+                } else {
+                    if (untagged == null) {
+                        untagged = new StringBuilder();
+                    } else {
+                        untagged.append(',');
+                    }
+                    untagged.append(text, start, end);
+                }
+            }
+
+            i += separatorLength;
+            itemStart = i;
+        }
+
+        if (untagged != null) {
+            put(entries, DEFAULT_LABEL, untagged.toString());
+        }
+
+        sortByResolution(entries);
+        return new QualityLadder(entries);
+    }
+
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Highest resolution entry, else the non-empty "default" one, else the first
+     */
+    public Entry best() {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        if (entries.get(0).resolution > 0) {
+            return entries.get(0);
+        }
+        for (Entry entry : entries) {
+            if (DEFAULT_LABEL.equals(entry.label) && !entry.url.isEmpty()) {
+                return entry;
+            }
+        }
+        return entries.get(0);
+    }
+
+    /**
+     * Labels in ladder order, for logging
+     */
+    public List<String> labels() {
+        List<String> labels = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            labels.add(entry.label);
+        }
+        return labels;
+    }
+
+    private static void put(List<Entry> entries, String label, String url) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).label.equals(label)) {
+                entries.set(i, new Entry(label, url));
+                return;
+            }
+        }
+        entries.add(new Entry(label, url));
+    }
+
+    private static void sortByResolution(List<Entry> entries) {
+        // Stable, so non-resolution labels keep their order
+        Collections.sort(entries, (a, b) -> Integer.compare(b.resolution, a.resolution));
+    }
+
+    /**
+     * "1080p", "1080" or "720P" -> pixel height; anything else -> 0
+     */
+    static int resolutionOf(String label) {
+        int length = label.length();
+        if (length > 0 && (label.charAt(length - 1) == 'p' || label.charAt(length - 1) == 'P')) {
+            length--;
+        }
+        if (length == 0 || length > 5) {
+            return 0;
+        }
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = label.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int skipSpaces(String text, int from, int to) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(String text, int from, int to) {
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+}
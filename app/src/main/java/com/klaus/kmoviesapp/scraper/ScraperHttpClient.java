@@ -0,0 +1,406 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.util.Log;
+
+import org.json.JSONObject;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Shared OkHttp client for every network call made by the scraper.
+ * Keeps connections alive in a pool, negotiates HTTP/2 where the server supports it
+ * and lets OkHttp handle gzip transparently.
+ */
+public class ScraperHttpClient {
+    private static final String TAG = "ScraperHttpClient";
+    private static final int TIMEOUT = 10000; // 10 seconds
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    static final String BROWSER_USER_AGENT =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+    static final String API_USER_AGENT =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/137.0.0.0 Safari/537.36";
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    // API responses carry short-lived tokens and ids, so they never touch the page cache
+    private static final CacheControl NO_CACHE = new CacheControl.Builder().noCache().noStore().build();
+
+    private static volatile OkHttpClient client;
+
+    // Aggregated handshake metrics across all calls
+    private static final AtomicLong callCount = new AtomicLong();
+    private static final AtomicLong connectionsOpened = new AtomicLong();
+    private static final AtomicLong totalDnsMs = new AtomicLong();
+    private static final AtomicLong totalConnectMs = new AtomicLong();
+    private static final AtomicLong totalTlsMs = new AtomicLong();
+
+    private ScraperHttpClient() {
+    }
+
+    /**
+     * Get the process-wide client, creating it on first use
+     */
+    public static OkHttpClient get() {
+        if (client == null) {
+            synchronized (ScraperHttpClient.class) {
+                if (client == null) {
+                    client = buildClient();
+                }
+            }
+        }
+        return client;
+    }
+
+    private static OkHttpClient buildClient() {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(TIMEOUT, TimeUnit.MILLISECONDS)
+                .readTimeout(TIMEOUT, TimeUnit.MILLISECONDS)
+                .writeTimeout(TIMEOUT, TimeUnit.MILLISECONDS)
+                .followRedirects(true)
+                .followSslRedirects(true)
+                .retryOnConnectionFailure(true)
+                .eventListenerFactory(HandshakeTimingListener::new);
+
+        Cache pageCache = PageCache.cache();
+        if (pageCache != null) {
+            builder.cache(pageCache).addNetworkInterceptor(PageCache.STORE_PAGES);
+        }
+
+        // Trust all certificates, matching the previous Jsoup setup
+        // WARNING: Only use this for testing/development
+        try {
+            X509TrustManager trustManager = new X509TrustManager() {
+                public X509Certificate[] getAcceptedIssuers() {
+                    return new X509Certificate[0];
+                }
+
+                public void checkClientTrusted(X509Certificate[] certs, String authType) {
+                }
+
+                public void checkServerTrusted(X509Certificate[] certs, String authType) {
+                }
+            };
+
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, new TrustManager[]{trustManager}, new SecureRandom());
+            builder.sslSocketFactory(sslContext.getSocketFactory(), trustManager)
+                    .hostnameVerifier((hostname, session) -> true);
+        } catch (Exception e) {
+            Log.e(TAG, "Error creating SSL Socket Factory: " + e.getMessage());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Build a browser-like request for an HTML page.
+     * Accept-Encoding is left to OkHttp so gzip is decoded transparently.
+     */
+    static Request.Builder pageRequest(String url) {
+        return new Request.Builder()
+                .url(url)
+                .header("User-Agent", BROWSER_USER_AGENT)
+                .header("Referer", "https://www.google.com")
+                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8")
+                .header("Accept-Language", "en-US,en;q=0.5")
+                .header("Upgrade-Insecure-Requests", "1");
+    }
+
+    /**
+     * Fetch an HTML page (hedged across mirrors when it is on one) and let Jsoup parse it
+     * straight from the response stream. Relative links resolve against the mirror that answered.
+     */
+    public static Document fetchDocument(String url) throws IOException {
+        try (Response response = MirrorFetcher.openPage(url)) {
+            return Jsoup.parse(response.body().byteStream(), charsetOf(response),
+                    response.request().url().toString());
+        }
+    }
+
+    /**
+     * Start an HTML page request and return the open response, for callers that read the
+     * body incrementally. The endpoint's timeout covers the whole call, body included, so a
+     * stalled transfer cannot hold up the parse. The caller must close it.
+     */
+    public static Response openPage(String url) throws IOException {
+        Endpoint endpoint = Endpoint.forPage(url);
+        // Check the deadline before the breaker, so a half-open trial is never skipped
+        long timeoutMs = endpoint.timeoutMs();
+        boolean deadlineCapped = timeoutMs < endpoint.adaptiveTimeoutMs();
+        endpoint.checkAvailable();
+
+        long startNs = System.nanoTime();
+        Call call = get().newCall(pageRequest(url).build());
+        call.timeout().timeout(timeoutMs, TimeUnit.MILLISECONDS);
+        Response response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            // The call timeout also cancels the call, so tell the two apart by elapsed time
+            boolean timedOut = (System.nanoTime() - startNs) / 1000000 >= timeoutMs;
+            if (timedOut ? deadlineCapped : wasCancelled(call)) {
+                endpoint.onAbandoned();
+            } else {
+                endpoint.onFailure();
+            }
+            throw e;
+        }
+        if (response.code() >= 500 || response.body() == null) {
+            endpoint.onFailure();
+            response.close();
+            throw new IOException("HTTP " + response.code() + ": " + url);
+        }
+        endpoint.onSuccess((System.nanoTime() - startNs) / 1000000);
+        return response;
+    }
+
+    /**
+     * Charset declared by the response, or null to let the parser detect it
+     */
+    static String charsetOf(Response response) {
+        MediaType contentType = response.body() != null ? response.body().contentType() : null;
+        return contentType != null && contentType.charset() != null
+                ? contentType.charset().name() : null;
+    }
+
+    /**
+     * Make HTTP GET request and stream the requested paths out of the JSON response
+     */
+    public static JsonPaths.Result getJson(Endpoint endpoint, String url, JsonPaths paths) throws Exception {
+        Request request = new Request.Builder()
+                .url(url)
+                .header("User-Agent", API_USER_AGENT)
+                .cacheControl(NO_CACHE)
+                .get()
+                .build();
+        return executeJson(endpoint, request, paths);
+    }
+
+    /**
+     * Make HTTP POST request with JSON body and stream the requested paths out of the response
+     */
+    public static JsonPaths.Result postJson(Endpoint endpoint, String url, JSONObject payload, JsonPaths paths) throws Exception {
+        Request request = new Request.Builder()
+                .url(url)
+                .header("User-Agent", API_USER_AGENT)
+                .cacheControl(NO_CACHE)
+                .post(RequestBody.create(payload.toString(), JSON))
+                .build();
+        return executeJson(endpoint, request, paths);
+    }
+
+    /**
+     * Run a JSON call under the endpoint's circuit breaker, with a whole-call timeout taken
+     * from its observed latencies and capped by the current deadline
+     */
+    private static JsonPaths.Result executeJson(Endpoint endpoint, Request request, JsonPaths paths) throws Exception {
+        // Check the deadline before the breaker, so a half-open trial is never skipped
+        long timeoutMs = endpoint.timeoutMs();
+        boolean deadlineCapped = timeoutMs < endpoint.adaptiveTimeoutMs();
+        endpoint.checkAvailable();
+
+        Call call = get().newCall(request);
+        call.timeout().timeout(timeoutMs, TimeUnit.MILLISECONDS);
+
+        long startNs = System.nanoTime();
+        try (Response response = call.execute()) {
+            if (response.code() >= 500) {
+                endpoint.onFailure();
+                throw new HttpStatusException(response.code());
+            }
+            if (response.code() != 200) {
+                // The endpoint is up, it just rejected this request
+                endpoint.onSuccess((System.nanoTime() - startNs) / 1000000);
+                throw new HttpStatusException(response.code());
+            }
+            ResponseBody body = response.body();
+            if (body == null) {
+                endpoint.onFailure();
+                throw new Exception("Empty response body");
+            }
+            // charStream() decodes straight from Okio's pooled segments, so the body is
+            // never copied into one large String
+            JsonPaths.Result result = paths.read(body.charStream());
+            endpoint.onSuccess((System.nanoTime() - startNs) / 1000000);
+            return result;
+        } catch (IOException e) {
+            // The call timeout also cancels the call, so tell the two apart by elapsed time
+            boolean timedOut = (System.nanoTime() - startNs) / 1000000 >= timeoutMs;
+            if (timedOut ? deadlineCapped : wasCancelled(call)) {
+                // Cut short by the action's deadline or its caller, not by the endpoint
+                endpoint.onAbandoned();
+            } else {
+                endpoint.onFailure();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Whether a failed call was cancelled or its thread interrupted by the task that made it
+     */
+    private static boolean wasCancelled(Call call) {
+        return call.isCanceled() || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Thrown when a JSON endpoint answers with a non-200 status
+     */
+    public static class HttpStatusException extends Exception {
+        private final int statusCode;
+
+        public HttpStatusException(int statusCode) {
+            super("HTTP Error: " + statusCode);
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+
+    public static long getCallCount() {
+        return callCount.get();
+    }
+
+    public static long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    /**
+     * Total time spent on DNS, TCP connect and TLS across all calls, in milliseconds
+     */
+    public static long getTotalHandshakeMs() {
+        return totalDnsMs.get() + totalConnectMs.get() + totalTlsMs.get();
+    }
+
+    public static String getStatsSummary() {
+        return "calls=" + callCount.get()
+                + " connections=" + connectionsOpened.get()
+                + " dns=" + totalDnsMs.get() + "ms"
+                + " connect=" + totalConnectMs.get() + "ms"
+                + " tls=" + totalTlsMs.get() + "ms";
+    }
+
+    /**
+     * Records per-call DNS, connect and TLS timings.
+     * A call that reuses a pooled connection reports zero for all three.
+     */
+    private static class HandshakeTimingListener extends EventListener {
+        private long callStartNs;
+        private long dnsStartNs;
+        private long connectStartNs;
+        private long tlsStartNs;
+        private long dnsMs;
+        private long connectMs;
+        private long tlsMs;
+        private boolean newConnection;
+
+        HandshakeTimingListener(Call call) {
+        }
+
+        @Override
+        public void callStart(Call call) {
+            callStartNs = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStartNs = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            dnsMs += elapsedMs(dnsStartNs);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStartNs = System.nanoTime();
+            newConnection = true;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            tlsStartNs = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            tlsMs += elapsedMs(tlsStartNs);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            // Connect time includes the TLS handshake, so report TCP on its own
+            connectMs += Math.max(0, elapsedMs(connectStartNs) - tlsMs);
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            if (newConnection) {
+                connectionsOpened.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            record(call);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            record(call);
+        }
+
+        private void record(Call call) {
+            callCount.incrementAndGet();
+            totalDnsMs.addAndGet(dnsMs);
+            totalConnectMs.addAndGet(connectMs);
+            totalTlsMs.addAndGet(tlsMs);
+
+            Log.d(TAG, call.request().url().host()
+                    + (newConnection ? " new connection" : " reused connection")
+                    + " dns=" + dnsMs + "ms connect=" + connectMs + "ms tls=" + tlsMs + "ms"
+                    + " total=" + elapsedMs(callStartNs) + "ms");
+        }
+
+        private static long elapsedMs(long startNs) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs);
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.klaus.kmoviesapp.scraper;
 
-import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
+import androidx.lifecycle.LifecycleOwner;
+
 import com.klaus.kmoviesapp.models.Movie;
 
 import java.util.List;
 
-public class ScraperTask extends AsyncTask<String, Void, List<Movie>> {
+public class ScraperTask {
     private static final String TAG = "ScraperTask";
     
     public interface ScraperCallback {
@@ -15,8 +18,31 @@ public class ScraperTask extends AsyncTask<String, Void, List<Movie>> {
         void onScrapingError(String error);
     }
 
+    /**
+     * Callback that also receives cards in batches while the page is still downloading.
+     * onScrapingComplete still delivers the full list at the end.
+     */
+    public interface ProgressiveScraperCallback extends ScraperCallback {
+        void onScrapingProgress(List<Movie> batch);
+    }
+
+    /**
+     * Receives the list last stored for this task's page, before the network refresh starts
+     */
+    public interface CachedResultsListener {
+        void onCachedResults(List<Movie> movies);
+    }
+
+    private static final int CACHED_LIST_LIMIT = 200;
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
     private final ScraperCallback callback;
     private final ScraperType type;
+    private TaskEngine.Priority priority = TaskEngine.Priority.VISIBLE;
+    private LifecycleOwner owner;
+    private CachedResultsListener cachedListener;
+    private volatile TaskEngine.TaskHandle handle;
 
     public enum ScraperType {
         HOME,
@@ -32,46 +58,168 @@ public class ScraperTask extends AsyncTask<String, Void, List<Movie>> {
         this.callback = callback;
     }
 
-    @Override
-    protected List<Movie> doInBackground(String... params) {
-        try {
-            switch (type) {
-                case HOME:
-                    return FMoviesScraper.scrapeHomePage();
-                    
-                case MOVIES:
-                    return FMoviesScraper.scrapeMovies();
-                    
-                case TV_SHOWS:
-                    return FMoviesScraper.scrapeTVShows();
-                    
-                case TOP_IMDB:
-                    return FMoviesScraper.scrapeTopIMDb();
-                    
-                case CATEGORY:
-                    if (params.length > 0) {
-                        return FMoviesScraper.scrapeCategory(params[0]);
+    /**
+     * Run in a different lane than the default VISIBLE one
+     */
+    public ScraperTask withPriority(TaskEngine.Priority priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * Cancel the scrape when the given Activity or Fragment is destroyed
+     */
+    public ScraperTask bindTo(LifecycleOwner owner) {
+        this.owner = owner;
+        return this;
+    }
+
+    /**
+     * Show the page's stored list from the catalog first, then refresh it from the network
+     */
+    public ScraperTask showCached(CachedResultsListener listener) {
+        this.cachedListener = listener;
+        return this;
+    }
+
+    public TaskEngine.TaskHandle execute(String... params) {
+        handle = TaskEngine.submit(priority, () -> scrape(params),
+                new TaskEngine.Callback<List<Movie>>() {
+                    @Override
+                    public void onSuccess(List<Movie> movies) {
+                        if (movies != null && !movies.isEmpty()) {
+                            callback.onScrapingComplete(movies);
+                        } else {
+                            callback.onScrapingError("No movies found or error occurred");
+                        }
                     }
-                    break;
-                    
-                case SEARCH:
-                    if (params.length > 0) {
-                        return FMoviesScraper.searchMovies(params[0]);
+
+                    @Override
+                    public void onError(Exception error) {
+                        Log.e(TAG, "Error in scraping task: " + error.getMessage());
+                        callback.onScrapingError("No movies found or error occurred");
                     }
-                    break;
+                });
+        if (owner != null) {
+            handle.bindTo(owner);
+        }
+        return handle;
+    }
+
+    private List<Movie> scrape(String... params) {
+        if (cachedListener != null) {
+            postCachedResults(params);
+        }
+
+        if (callback instanceof ProgressiveScraperCallback) {
+            List<Movie> streamed = scrapeProgressively((ProgressiveScraperCallback) callback, params);
+            if (streamed != null) {
+                return streamed;
+            }
+        }
+
+        switch (type) {
+            case HOME:
+                return FMoviesScraper.scrapeHomePage();
+
+            case MOVIES:
+                return FMoviesScraper.scrapeMovies();
+
+            case TV_SHOWS:
+                return FMoviesScraper.scrapeTVShows();
+
+            case TOP_IMDB:
+                return FMoviesScraper.scrapeTopIMDb();
+
+            case CATEGORY:
+                if (params.length > 0) {
+                    return FMoviesScraper.scrapeCategory(params[0]);
+                }
+                break;
+
+            case SEARCH:
+                if (params.length > 0) {
+                    return FMoviesScraper.searchMovies(params[0]);
+                }
+                break;
+        }
+        return null;
+    }
+
+    private void postCachedResults(String... params) {
+        List<Movie> cached = CatalogStore.loadList(pageUrl(params), 0, CACHED_LIST_LIMIT);
+        if (cached.isEmpty()) {
+            return;
+        }
+        Log.d(TAG, "Showing " + cached.size() + " stored titles for " + type);
+        mainHandler.post(() -> {
+            // execute() has returned by the time this runs, so the handle is set
+            if (handle != null && !handle.isCancelled()) {
+                cachedListener.onCachedResults(cached);
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error in scraping task: " + e.getMessage());
+        });
+    }
+
+    /**
+     * The page this task scrapes, which is also its list key in the catalog
+     */
+    private String pageUrl(String... params) {
+        switch (type) {
+            case HOME:
+                return FMoviesScraper.HOME_URL;
+            case MOVIES:
+                return FMoviesScraper.MOVIES_URL;
+            case TV_SHOWS:
+                return FMoviesScraper.TV_SHOWS_URL;
+            case TOP_IMDB:
+                return FMoviesScraper.TOP_IMDB_URL;
+            case CATEGORY:
+                return params.length > 0 ? FMoviesScraper.BASE_URL + params[0] : null;
+            case SEARCH:
+                return params.length > 0 ? FMoviesScraper.searchUrl(params[0]) : null;
         }
         return null;
     }
 
-    @Override
-    protected void onPostExecute(List<Movie> movies) {
-        if (movies != null && !movies.isEmpty()) {
-            callback.onScrapingComplete(movies);
-        } else {
-            callback.onScrapingError("No movies found or error occurred");
+    /**
+     * Stream the page and forward each batch to the main thread.
+     * Returns null for types that are not streamed.
+     */
+    private List<Movie> scrapeProgressively(ProgressiveScraperCallback progressCallback, String... params) {
+        FMoviesScraper.CardBatchListener listener = batch -> mainHandler.post(() -> {
+            // execute() has returned by the time this runs, so the handle is set
+            if (handle != null && !handle.isCancelled()) {
+                progressCallback.onScrapingProgress(batch);
+            }
+        });
+
+        switch (type) {
+            case MOVIES:
+                return FMoviesScraper.scrapeMovies(listener);
+
+            case TV_SHOWS:
+                return FMoviesScraper.scrapeTVShows(listener);
+
+            case TOP_IMDB:
+                return FMoviesScraper.scrapeTopIMDb(listener);
+
+            case CATEGORY:
+                if (params.length > 0) {
+                    return FMoviesScraper.scrapeCategory(params[0], listener);
+                }
+                break;
+
+            case SEARCH:
+                if (params.length > 0) {
+                    return FMoviesScraper.searchMovies(params[0], listener);
+                }
+                break;
+
+            default:
+                // The home page is shared with the "Top this week" row through the document
+                // cache, so it keeps the whole-document path
+                break;
         }
+        return null;
     }
 }
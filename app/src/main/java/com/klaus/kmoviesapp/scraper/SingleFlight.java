@@ -0,0 +1,115 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.util.Log;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent calls for the same key into one execution.
+ * The first caller for a key runs the work; callers arriving while it is in flight wait
+ * for it and receive the same result or exception. Nothing is cached once the work ends.
+ * If the leader was cancelled, its waiters run the work again instead of sharing its outcome,
+ * so work should let cancellation propagate rather than turn it into an empty result.
+ */
+public class SingleFlight<K, V> {
+    private static final String TAG = "SingleFlight";
+
+    private final String name;
+    private final Map<K, Flight<V>> inFlight = new HashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * The work to run once per key at a time
+     */
+    public interface Work<V> {
+        V run() throws Exception;
+    }
+
+    private static class Flight<V> {
+        final CountDownLatch done = new CountDownLatch(1);
+        V value;
+        Exception error;
+        boolean cancelled;
+    }
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    public V run(K key, Work<V> work) throws Exception {
+        calls.incrementAndGet();
+
+        Flight<V> flight;
+        boolean leader = false;
+        synchronized (inFlight) {
+            flight = inFlight.get(key);
+            if (flight == null) {
+                flight = new Flight<>();
+                inFlight.put(key, flight);
+                leader = true;
+            }
+        }
+
+        if (!leader) {
+            coalesced.incrementAndGet();
+            Log.d(TAG, name + ": joined in-flight call for " + key);
+            flight.done.await();
+            if (flight.cancelled) {
+                // The leader's task was cancelled, not ours; run it again for this caller
+                return run(key, work);
+            }
+            if (flight.error != null) {
+                throw flight.error;
+            }
+            return flight.value;
+        }
+
+        try {
+            flight.value = work.run();
+            // Work that swallowed the interrupt still ran for a caller that has gone away
+            flight.cancelled = Thread.currentThread().isInterrupted();
+            return flight.value;
+        } catch (Exception e) {
+            flight.error = e;
+            flight.cancelled = isCancellation(e) || Thread.currentThread().isInterrupted();
+            throw e;
+        } finally {
+            synchronized (inFlight) {
+                inFlight.remove(key);
+            }
+            flight.done.countDown();
+        }
+    }
+
+    /**
+     * Whether a failure means the caller was cancelled rather than the work failing
+     */
+    static boolean isCancellation(Exception e) {
+        // SocketTimeoutException is an InterruptedIOException too, but a real failure
+        return e instanceof InterruptedException
+                || e instanceof CancellationException
+                || (e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException));
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * Calls that shared another caller's execution instead of starting their own
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public String getStatsSummary() {
+        return name + ": " + getCalls() + " calls, " + getCoalesced() + " duplicates avoided";
+    }
+}
@@ -0,0 +1,157 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the steps of one resolution as a dependency graph of async stages.
+ * Each stage starts as soon as the stages it depends on have finished, so independent
+ * stages overlap and total latency follows the critical path. Per-stage timings are logged.
+ * An optional deadline bounds the whole graph: stages run with it installed, so their network
+ * calls shorten their timeouts to fit, and waiting on a stage never outlasts it.
+ */
+public class StageGraph {
+    private static final String TAG = "StageGraph";
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    // Stages block on each other, so the pool must not be bounded below the graph width
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "resolve-stage-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String name;
+    private final Deadline deadline;
+    private final long startNs;
+    private final List<Stage<?>> stages = new ArrayList<>();
+
+    public StageGraph(String name) {
+        this(name, null);
+    }
+
+    public StageGraph(String name, Deadline deadline) {
+        this.name = name;
+        this.deadline = deadline;
+        this.startNs = System.nanoTime();
+    }
+
+    /**
+     * Schedule a stage that runs once all of the given stages have completed
+     */
+    public <T> Stage<T> start(String stageName, Callable<T> work, Stage<?>... dependencies) {
+        Stage<T> stage = new Stage<>(stageName, work, dependencies);
+        synchronized (stages) {
+            stages.add(stage);
+        }
+        stage.future = executor.submit(stage::run);
+        return stage;
+    }
+
+    /**
+     * Cancel every stage that has not finished yet
+     */
+    public void cancel() {
+        synchronized (stages) {
+            for (Stage<?> stage : stages) {
+                if (stage.future != null) {
+                    stage.future.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Log each stage's start offset and duration next to the total wall time
+     */
+    public void logTimings() {
+        long totalMs = (System.nanoTime() - startNs) / 1000000;
+        long sumMs = 0;
+        StringBuilder summary = new StringBuilder();
+
+        synchronized (stages) {
+            for (Stage<?> stage : stages) {
+                if (stage.endNs == 0) {
+                    summary.append("\n  ").append(stage.name).append(": not finished");
+                    continue;
+                }
+                long offsetMs = (stage.startNs - startNs) / 1000000;
+                long durationMs = (stage.endNs - stage.startNs) / 1000000;
+                sumMs += durationMs;
+                summary.append("\n  ").append(stage.name)
+                        .append(": +").append(offsetMs).append("ms, ")
+                        .append(durationMs).append("ms");
+            }
+        }
+
+        Log.d(TAG, name + " took " + totalMs + "ms (stages sum " + sumMs + "ms)" + summary);
+    }
+
+    /**
+     * A single step in the graph. Timing covers only the step's own work,
+     * starting after its dependencies have completed.
+     */
+    public class Stage<T> {
+        private final String name;
+        private final Callable<T> work;
+        private final Stage<?>[] dependencies;
+        private volatile Future<T> future;
+        private volatile long startNs;
+        private volatile long endNs;
+
+        private Stage(String name, Callable<T> work, Stage<?>[] dependencies) {
+            this.name = name;
+            this.work = work;
+            this.dependencies = dependencies;
+        }
+
+        private T run() throws Exception {
+            // A failed dependency fails this stage with the same cause
+            for (Stage<?> dependency : dependencies) {
+                dependency.get();
+            }
+
+            startNs = System.nanoTime();
+            try {
+                if (deadline == null) {
+                    return work.call();
+                }
+                deadline.check();
+                return deadline.run(work);
+            } finally {
+                endNs = System.nanoTime();
+            }
+        }
+
+        /**
+         * Wait for the stage and return its value, rethrowing its failure as-is
+         */
+        public T get() throws Exception {
+            try {
+                if (deadline == null) {
+                    return future.get();
+                }
+                return future.get(deadline.remainingMs(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new Deadline.ExceededException();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
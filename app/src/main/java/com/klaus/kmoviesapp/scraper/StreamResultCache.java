@@ -0,0 +1,318 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Two-tier (memory + disk) cache of resolved stream results keyed by TMDB id.
+ * Entries expire when the earliest signed URL in the result is due to expire.
+ */
+public class StreamResultCache {
+    private static final String TAG = "StreamResultCache";
+    private static final String DIR_NAME = "stream_results";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int MEMORY_ENTRIES = 32;
+    private static final long SAFETY_MARGIN_MS = 60 * 1000; // 1 minute
+    private static final long SIGNED_URL_TTL_MS = 10 * 60 * 1000; // 10 minutes
+    private static final long UNSIGNED_URL_TTL_MS = 60 * 60 * 1000; // 1 hour
+
+    // Query parameters holding an absolute expiry timestamp
+    private static final String[] EXPIRY_PARAMS = {"expires", "expire", "exp", "e", "expiry", "deadline", "valid_until"};
+    // Query parameters that indicate a signed URL without an explicit expiry
+    private static final String[] TOKEN_PARAMS = {"token", "sig", "signature", "hash", "st", "hmac", "auth", "key"};
+
+    private static final LruCache<String, Entry> memory = new LruCache<>(MEMORY_ENTRIES);
+    private static File diskDir;
+
+    private static class Entry {
+        final FMoviesScraper.StreamResult result;
+        final long expiresAt;
+
+        Entry(FMoviesScraper.StreamResult result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    private StreamResultCache() {
+    }
+
+    /**
+     * Enable the disk tier. Without it the cache is memory-only.
+     */
+    public static synchronized void init(Context context) {
+        File dir = new File(context.getCacheDir(), DIR_NAME);
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.e(TAG, "Unable to create cache directory: " + dir);
+            return;
+        }
+        diskDir = dir;
+    }
+
+    /**
+     * Get a cached result, or null if missing or expired
+     */
+    public static FMoviesScraper.StreamResult get(String tmdbId) {
+        if (tmdbId == null) {
+            return null;
+        }
+
+        Entry entry = memory.get(tmdbId);
+        if (entry == null) {
+            entry = readFromDisk(tmdbId);
+            if (entry != null) {
+                memory.put(tmdbId, entry);
+            }
+        }
+
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired()) {
+            invalidate(tmdbId);
+            return null;
+        }
+
+        Log.d(TAG, "Cache hit for " + tmdbId + ", expires in "
+                + (entry.expiresAt - System.currentTimeMillis()) / 1000 + "s");
+        return entry.result;
+    }
+
+    public static void put(String tmdbId, FMoviesScraper.StreamResult result) {
+        if (tmdbId == null || result == null || result.streamUrl == null) {
+            return;
+        }
+
+        long expiresAt = computeExpiry(result);
+        if (expiresAt <= System.currentTimeMillis()) {
+            Log.d(TAG, "Not caching " + tmdbId + ", URLs already expired");
+            return;
+        }
+
+        Entry entry = new Entry(result, expiresAt);
+        memory.put(tmdbId, entry);
+        writeToDisk(tmdbId, entry);
+    }
+
+    public static synchronized void invalidate(String tmdbId) {
+        memory.remove(tmdbId);
+        File file = fileFor(tmdbId);
+        if (file != null && file.exists() && !file.delete()) {
+            Log.w(TAG, "Unable to delete " + file);
+        }
+    }
+
+    /**
+     * Earliest expiry across every URL in the result, minus a safety margin
+     */
+    static long computeExpiry(FMoviesScraper.StreamResult result) {
+        long now = System.currentTimeMillis();
+        long expiresAt = Long.MAX_VALUE;
+
+        expiresAt = Math.min(expiresAt, urlExpiry(result.streamUrl, now));
+        expiresAt = Math.min(expiresAt, earliestExpiry(result.qualities, now));
+        expiresAt = Math.min(expiresAt, earliestExpiry(result.subtitles, now));
+
+        return expiresAt - SAFETY_MARGIN_MS;
+    }
+
+    private static long earliestExpiry(QualityLadder ladder, long now) {
+        long expiresAt = Long.MAX_VALUE;
+        if (ladder != null) {
+            for (QualityLadder.Entry entry : ladder.entries()) {
+                expiresAt = Math.min(expiresAt, urlExpiry(entry.url, now));
+            }
+        }
+        return expiresAt;
+    }
+
+    private static long urlExpiry(String url, long now) {
+        if (url == null) {
+            return Long.MAX_VALUE;
+        }
+
+        Map<String, String> params = queryParams(url);
+
+        for (String name : EXPIRY_PARAMS) {
+            String value = params.get(name);
+            if (value != null && value.matches("\\d{9,13}")) {
+                long timestamp = Long.parseLong(value);
+                // Values under 10^12 are epoch seconds, larger ones epoch millis
+                return timestamp < 1000000000000L ? timestamp * 1000 : timestamp;
+            }
+        }
+
+        // S3/CloudFront style: signing date plus a relative lifetime in seconds
+        String amzDate = params.get("x-amz-date");
+        String amzExpires = params.get("x-amz-expires");
+        if (amzDate != null && amzExpires != null && amzExpires.matches("\\d+")) {
+            try {
+                SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd'T'HHmmss'Z'", Locale.US);
+                format.setTimeZone(TimeZone.getTimeZone("UTC"));
+                Date signedAt = format.parse(amzDate);
+                if (signedAt != null) {
+                    return signedAt.getTime() + Long.parseLong(amzExpires) * 1000;
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "Unparseable X-Amz-Date: " + amzDate);
+            }
+        }
+
+        for (String name : TOKEN_PARAMS) {
+            if (params.containsKey(name)) {
+                return now + SIGNED_URL_TTL_MS;
+            }
+        }
+
+        return now + UNSIGNED_URL_TTL_MS;
+    }
+
+    /**
+     * Lower-cased query parameter names mapped to their raw values
+     */
+    private static Map<String, String> queryParams(String url) {
+        Map<String, String> params = new HashMap<>();
+
+        int queryStart = url.indexOf('?');
+        if (queryStart < 0) {
+            return params;
+        }
+        int fragmentStart = url.indexOf('#', queryStart);
+        String query = fragmentStart < 0 ? url.substring(queryStart + 1) : url.substring(queryStart + 1, fragmentStart);
+
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq).toLowerCase(Locale.US), pair.substring(eq + 1));
+            } else if (!pair.isEmpty()) {
+                params.put(pair.toLowerCase(Locale.US), "");
+            }
+        }
+        return params;
+    }
+
+    private static synchronized File fileFor(String tmdbId) {
+        if (diskDir == null) {
+            return null;
+        }
+        // TMDB ids are numeric, but never let a key escape the cache directory
+        return new File(diskDir, tmdbId.replaceAll("[^A-Za-z0-9_-]", "_") + ".json");
+    }
+
+    private static Entry readFromDisk(String tmdbId) {
+        File file = fileFor(tmdbId);
+        if (file == null || !file.exists()) {
+            return null;
+        }
+
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+
+            JSONObject json = new JSONObject(new String(bytes, 0, read, UTF_8));
+            FMoviesScraper.StreamResult result = new FMoviesScraper.StreamResult(
+                    json.getString("streamUrl"),
+                    toLadder(json, "qualities"),
+                    toLadder(json, "subtitles")
+            );
+            return new Entry(result, json.getLong("expiresAt"));
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading cache entry for " + tmdbId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeToDisk(String tmdbId, Entry entry) {
+        File file = fileFor(tmdbId);
+        if (file == null) {
+            return;
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            JSONObject json = new JSONObject();
+            json.put("expiresAt", entry.expiresAt);
+            json.put("streamUrl", entry.result.streamUrl);
+            json.put("qualities", toJson(entry.result.qualities));
+            json.put("subtitles", toJson(entry.result.subtitles));
+
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                out.write(json.toString().getBytes(UTF_8));
+            }
+            if (!tmp.renameTo(file)) {
+                throw new IOException("rename failed");
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error writing cache entry for " + tmdbId + ": " + e.getMessage());
+            tmp.delete();
+        }
+    }
+
+    /**
+     * Ladder entries as [label, url] pairs, in ladder order
+     */
+    private static JSONArray toJson(QualityLadder ladder) {
+        JSONArray array = new JSONArray();
+        if (ladder != null) {
+            for (QualityLadder.Entry entry : ladder.entries()) {
+                array.put(new JSONArray().put(entry.label).put(entry.url));
+            }
+        }
+        return array;
+    }
+
+    private static QualityLadder toLadder(JSONObject json, String key) {
+        List<QualityLadder.Entry> entries = new ArrayList<>();
+        JSONArray array = json.optJSONArray(key);
+        if (array != null) {
+            for (int i = 0; i < array.length(); i++) {
+                JSONArray pair = array.optJSONArray(i);
+                if (pair != null && pair.length() == 2) {
+                    entries.add(new QualityLadder.Entry(pair.optString(0), pair.optString(1)));
+                }
+            }
+        } else {
+            // Entries written before the ladder format stored a label -> url object
+            JSONObject map = json.optJSONObject(key);
+            if (map != null) {
+                Iterator<String> labels = map.keys();
+                while (labels.hasNext()) {
+                    String label = labels.next();
+                    entries.add(new QualityLadder.Entry(label, map.optString(label)));
+                }
+            }
+        }
+        return QualityLadder.of(entries);
+    }
+}
@@ -1,43 +1,62 @@
 package com.klaus.kmoviesapp.scraper;
 
-import android.os.AsyncTask;
 import android.util.Log;
 
-public class StreamUrlTask extends AsyncTask<String, Void, String> {
+import androidx.lifecycle.LifecycleOwner;
+
+public class StreamUrlTask {
     private static final String TAG = "StreamUrlTask";
 
     public interface StreamUrlCallback {
-        void onStreamUrlExtracted(String streamUrl);
+        void onStreamUrlExtracted(String streamUrl, String tmdbId);
         void onStreamUrlError(String error);
     }
 
     private final StreamUrlCallback callback;
+    private LifecycleOwner owner;
 
     public StreamUrlTask(StreamUrlCallback callback) {
         this.callback = callback;
     }
 
-    @Override
-    protected String doInBackground(String... params) {
-        if (params.length == 0) {
-            return null;
-        }
-
-        String detailUrl = params[0];
-        try {
-            return FMoviesScraper.extractStreamUrl(detailUrl);
-        } catch (Exception e) {
-            Log.e(TAG, "Error extracting stream URL: " + e.getMessage());
-            return null;
-        }
+    /**
+     * Cancel the resolution when the given Activity or Fragment is destroyed
+     */
+    public StreamUrlTask bindTo(LifecycleOwner owner) {
+        this.owner = owner;
+        return this;
     }
 
-    @Override
-    protected void onPostExecute(String streamUrl) {
-        if (streamUrl != null && !streamUrl.isEmpty()) {
-            callback.onStreamUrlExtracted(streamUrl);
-        } else {
-            callback.onStreamUrlError("Failed to extract stream URL");
+    /**
+     * Accepts either a TMDB id or, when the id is not known yet, the detail page URL.
+     * Runs in the PLAY lane so it never waits behind catalog scrapes.
+     */
+    public TaskEngine.TaskHandle execute(String idOrUrl) {
+        TaskEngine.TaskHandle handle = TaskEngine.submit(TaskEngine.Priority.PLAY, () -> {
+            if (idOrUrl.startsWith("http")) {
+                return FMoviesScraper.extractStreamUrlFromDetailUrl(idOrUrl);
+            }
+            return FMoviesScraper.extractStreamUrlWithSubtitles(idOrUrl);
+        }, new TaskEngine.Callback<FMoviesScraper.StreamResult>() {
+            @Override
+            public void onSuccess(FMoviesScraper.StreamResult result) {
+                if (result != null && result.streamUrl != null && !result.streamUrl.isEmpty()) {
+                    callback.onStreamUrlExtracted(result.streamUrl, result.tmdbId);
+                    return;
+                }
+                UnplayableCache.Reason reason = FMoviesScraper.getUnavailableReason(idOrUrl);
+                callback.onStreamUrlError(reason != null ? "Unavailable: " + reason.message : "Failed to extract stream URL");
+            }
+
+            @Override
+            public void onError(Exception error) {
+                Log.e(TAG, "Error extracting stream URL: " + error.getMessage());
+                callback.onStreamUrlError("Failed to extract stream URL");
+            }
+        });
+        if (owner != null) {
+            handle.bindTo(owner);
         }
+        return handle;
     }
 }
@@ -0,0 +1,180 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background executor for the scraper layer.
+ * Work runs in one of three priority lanes, each with its own bounded pool, so a Play
+ * resolution never queues behind a category scrape. Results are delivered on the main
+ * thread, and tasks bound to a lifecycle are cancelled when it is destroyed.
+ */
+public class TaskEngine {
+    private static final String TAG = "TaskEngine";
+
+    /**
+     * Priority lanes, from most to least urgent
+     */
+    public enum Priority {
+        PLAY(2, Process.THREAD_PRIORITY_DEFAULT),           // User-initiated playback
+        VISIBLE(3, Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE), // Content on screen
+        PREFETCH(1, Process.THREAD_PRIORITY_BACKGROUND);    // Speculative work
+
+        final int threads;
+        final int threadPriority;
+        private volatile ThreadPoolExecutor executor;
+
+        Priority(int threads, int threadPriority) {
+            this.threads = threads;
+            this.threadPriority = threadPriority;
+        }
+
+        ThreadPoolExecutor executor() {
+            if (executor == null) {
+                synchronized (this) {
+                    if (executor == null) {
+                        executor = createLane(this);
+                    }
+                }
+            }
+            return executor;
+        }
+    }
+
+    /**
+     * Work to run off the main thread
+     */
+    public interface Job<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Result delivery, always on the main thread and never after cancellation
+     */
+    public interface Callback<T> {
+        void onSuccess(T result);
+        void onError(Exception error);
+    }
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private TaskEngine() {
+    }
+
+    private static ThreadPoolExecutor createLane(Priority priority) {
+        final AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                priority.threads, priority.threads,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> new Thread(() -> {
+                    Process.setThreadPriority(priority.threadPriority);
+                    r.run();
+                }, "task-" + priority.name().toLowerCase() + "-" + count.incrementAndGet()));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Run a job in the given lane and deliver its result on the main thread
+     */
+    public static <T> TaskHandle submit(Priority priority, Job<T> job, Callback<T> callback) {
+        final TaskHandle handle = new TaskHandle();
+        handle.future = priority.executor().submit(() -> {
+            if (handle.isCancelled()) {
+                return;
+            }
+
+            T result = null;
+            Exception error = null;
+            try {
+                result = job.run();
+            } catch (Exception e) {
+                error = e;
+            }
+
+            final T finalResult = result;
+            final Exception finalError = error;
+            mainHandler.post(() -> {
+                handle.detach();
+                if (handle.isCancelled() || callback == null) {
+                    return;
+                }
+                if (finalError != null) {
+                    callback.onError(finalError);
+                } else {
+                    callback.onSuccess(finalResult);
+                }
+            });
+        });
+        return handle;
+    }
+
+    /**
+     * Handle to a submitted task, used to cancel it directly or through a lifecycle
+     */
+    public static class TaskHandle {
+        private volatile Future<?> future;
+        private volatile boolean cancelled;
+        private Lifecycle boundLifecycle;
+        private LifecycleEventObserver observer;
+
+        public void cancel() {
+            cancelled = true;
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(true);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Cancel this task when the owner is destroyed. Must be called on the main thread.
+         */
+        public TaskHandle bindTo(LifecycleOwner owner) {
+            final Lifecycle lifecycle = owner.getLifecycle();
+            if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+                cancel();
+                return this;
+            }
+
+            observer = new LifecycleEventObserver() {
+                @Override
+                public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+                    if (event == Lifecycle.Event.ON_DESTROY) {
+                        Log.d(TAG, "Cancelling task, owner destroyed: " + source);
+                        cancel();
+                        detach();
+                    }
+                }
+            };
+            boundLifecycle = lifecycle;
+            lifecycle.addObserver(observer);
+            return this;
+        }
+
+        private void detach() {
+            if (boundLifecycle != null && observer != null) {
+                boundLifecycle.removeObserver(observer);
+            }
+            boundLifecycle = null;
+            observer = null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Persistent map from a title's detail page path to its TMDB id.
+ * Filled whenever a detail page is scraped or probed, so later plays of the same title
+ * can skip the detail page and go straight to stream resolution.
+ */
+public class TmdbIdIndex {
+    private static final String PREFS_NAME = "tmdb_id_index";
+
+    private static volatile SharedPreferences prefs;
+
+    private TmdbIdIndex() {
+    }
+
+    /**
+     * Open the on-disk index. Lookups return null until this has been called.
+     */
+    public static void init(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Known tmdbId for a detail URL, or null
+     */
+    public static String get(String detailUrl) {
+        String key = keyOf(detailUrl);
+        if (prefs == null || key == null) {
+            return null;
+        }
+        return prefs.getString(key, null);
+    }
+
+    public static void put(String detailUrl, String tmdbId) {
+        String key = keyOf(detailUrl);
+        if (prefs == null || key == null || tmdbId == null || tmdbId.isEmpty()) {
+            return;
+        }
+        if (!tmdbId.equals(prefs.getString(key, null))) {
+            prefs.edit().putString(key, tmdbId).apply();
+        }
+    }
+
+    /**
+     * The URL's path including its type segment, e.g. "/movie/some-title", so the same page
+     * on any mirror shares an entry but a movie and a show with the same slug do not
+     */
+    static String keyOf(String detailUrl) {
+        if (detailUrl == null) {
+            return null;
+        }
+        HttpUrl url = HttpUrl.parse(detailUrl);
+        String path = url != null ? url.encodedPath() : detailUrl;
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path.isEmpty() ? null : path;
+    }
+}
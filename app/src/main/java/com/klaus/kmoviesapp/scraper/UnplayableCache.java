@@ -0,0 +1,120 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+/**
+ * Persistent negative cache of titles whose stream could not be resolved, keyed by TMDB id.
+ * Only failures that say something about the title itself are recorded, never timeouts or
+ * outages. Each repeated failure doubles how long the title is skipped, and a successful
+ * resolution clears it.
+ */
+public class UnplayableCache {
+    private static final String TAG = "UnplayableCache";
+    private static final String PREFS_NAME = "unplayable_titles";
+
+    private static final long BASE_BACKOFF_MS = 30 * 60 * 1000; // 30 minutes
+    private static final long MAX_BACKOFF_MS = 7 * 24 * 60 * 60 * 1000L; // 7 days
+
+    private static volatile SharedPreferences prefs;
+
+    /**
+     * Why a title could not be played
+     */
+    public enum Reason {
+        NO_SOURCES("No sources available"),
+        DECRYPT_FAILED("Stream could not be decrypted");
+
+        public final String message;
+
+        Reason(String message) {
+            this.message = message;
+        }
+    }
+
+    /**
+     * A recorded failure: its cause, how many times in a row it happened and when to retry
+     */
+    private static class Entry {
+        final Reason reason;
+        final int failures;
+        final long retryAt;
+
+        Entry(Reason reason, int failures, long retryAt) {
+            this.reason = reason;
+            this.failures = failures;
+            this.retryAt = retryAt;
+        }
+
+        /**
+         * Stored as "failures:retryAt:REASON"
+         */
+        static Entry parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            String[] parts = value.split(":", 3);
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                return new Entry(Reason.valueOf(parts[2]), Integer.parseInt(parts[0]), Long.parseLong(parts[1]));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        String format() {
+            return failures + ":" + retryAt + ":" + reason.name();
+        }
+    }
+
+    private UnplayableCache() {
+    }
+
+    /**
+     * Open the on-disk cache. Nothing is recorded or reported until this has been called.
+     */
+    public static void init(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Why a title is known to be unplayable, or null if it has not failed or is due a retry
+     */
+    public static Reason get(String tmdbId) {
+        if (prefs == null || tmdbId == null) {
+            return null;
+        }
+        Entry entry = Entry.parse(prefs.getString(tmdbId, null));
+        if (entry == null || System.currentTimeMillis() >= entry.retryAt) {
+            return null;
+        }
+        return entry.reason;
+    }
+
+    public static synchronized void record(String tmdbId, Reason reason) {
+        if (prefs == null || tmdbId == null) {
+            return;
+        }
+        Entry previous = Entry.parse(prefs.getString(tmdbId, null));
+        int failures = previous != null ? previous.failures + 1 : 1;
+
+        // 30 minutes, then doubling per consecutive failure up to a week
+        long backoff = BASE_BACKOFF_MS << Math.min(failures - 1, 20);
+        backoff = Math.min(MAX_BACKOFF_MS, backoff);
+
+        Entry entry = new Entry(reason, failures, System.currentTimeMillis() + backoff);
+        prefs.edit().putString(tmdbId, entry.format()).apply();
+        Log.d(TAG, tmdbId + " unplayable (" + reason + "), failure " + failures
+                + ", skipped for " + backoff / 60000 + " min");
+    }
+
+    public static synchronized void clear(String tmdbId) {
+        if (prefs == null || tmdbId == null || !prefs.contains(tmdbId)) {
+            return;
+        }
+        prefs.edit().remove(tmdbId).apply();
+    }
+}
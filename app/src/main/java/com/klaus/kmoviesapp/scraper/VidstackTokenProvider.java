@@ -0,0 +1,176 @@
+package com.klaus.kmoviesapp.scraper;
+
+import android.util.Base64;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the current enc-vidstack token/user_id pair, so stream resolution can skip the
+ * token round trip. A token asked for late in its lifetime is still handed out, and a
+ * replacement is fetched in the background; nothing is refreshed while no one asks.
+ */
+public class VidstackTokenProvider {
+    private static final String TAG = "VidstackTokenProvider";
+    private static final String TOKEN_URL = "https://enc-dec.app/api/enc-vidstack";
+    private static final JsonPaths TOKEN_PATHS = new JsonPaths("result.token", "result.user_id");
+
+    private static final long DEFAULT_TTL_MS = 10 * 60 * 1000; // 10 minutes
+    private static final double REFRESH_AT_FRACTION = 0.8;
+
+    private static final Executor refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "vidstack-token-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by the class lock, which is never held across the network fetch
+    private static Token current;
+
+    // One fetch at a time; callers arriving meanwhile wait for its token
+    private static final SingleFlight<String, Token> fetches = new SingleFlight<>("token");
+    private static final String FETCH_KEY = "token";
+
+    /**
+     * A token/user_id pair with the time it stops being usable
+     */
+    public static class Token {
+        public final String token;
+        public final String userId;
+        final long fetchedAt;
+        final long expiresAt;
+
+        Token(String token, String userId, long fetchedAt, long expiresAt) {
+            this.token = token;
+            this.userId = userId;
+            this.fetchedAt = fetchedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isValid() {
+            return System.currentTimeMillis() < expiresAt;
+        }
+
+        /**
+         * Whether this token is far enough into its lifetime that a replacement should be fetched
+         */
+        boolean isDueForRefresh() {
+            return System.currentTimeMillis() >= fetchedAt + (long) ((expiresAt - fetchedAt) * REFRESH_AT_FRACTION);
+        }
+    }
+
+    private VidstackTokenProvider() {
+    }
+
+    /**
+     * Get a usable token, fetching one on the calling thread only if none is cached.
+     * A cached token near its expiry is returned as is while a new one is fetched in the background.
+     */
+    public static Token get() throws Exception {
+        Token token = cached();
+        if (token != null) {
+            if (token.isDueForRefresh()) {
+                refreshInBackground();
+            }
+            return token;
+        }
+        return fetches.run(FETCH_KEY, () -> {
+            // Another caller may have fetched one between our check and leading this flight
+            Token fresh = cached();
+            return fresh != null ? fresh : fetch();
+        });
+    }
+
+    /**
+     * Start fetching a token in the background unless a cached one has plenty of life left
+     */
+    public static void prefetch() {
+        Token token = cached();
+        if (token == null || token.isDueForRefresh()) {
+            refreshInBackground();
+        }
+    }
+
+    private static void refreshInBackground() {
+        refresher.execute(() -> {
+            try {
+                // Several triggers can queue up; only the first finds the token still due
+                Token token = cached();
+                if (token == null || token.isDueForRefresh()) {
+                    refresh();
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Background token refresh failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Drop a token the player endpoint rejected. A newer token is left alone.
+     */
+    public static synchronized void invalidate(Token stale) {
+        if (current == stale) {
+            current = null;
+        }
+    }
+
+    private static synchronized Token cached() {
+        return current != null && current.isValid() ? current : null;
+    }
+
+    /**
+     * Fetch a fresh token even if one is cached, sharing a fetch that is already running
+     */
+    public static Token refresh() throws Exception {
+        return fetches.run(FETCH_KEY, VidstackTokenProvider::fetch);
+    }
+
+    /**
+     * Fetch a token without holding the lock, then publish it
+     */
+    private static Token fetch() throws Exception {
+        JsonPaths.Result tokenResponse = ScraperHttpClient.getJson(Endpoint.TOKEN, TOKEN_URL, TOKEN_PATHS);
+        String token = tokenResponse.get("result.token");
+        String userId = tokenResponse.get("result.user_id");
+        if (token == null || userId == null) {
+            throw new JSONException("Token response missing result.token or result.user_id");
+        }
+
+        long now = System.currentTimeMillis();
+        long ttl = lifetimeOf(token, now);
+        if (ttl <= 0) {
+            throw new JSONException("Token expired " + -ttl / 1000 + "s before it was received");
+        }
+        Token fetched = new Token(token, userId, now, now + ttl);
+
+        Log.d(TAG, "Got token: " + token.substring(0, Math.min(10, token.length())) + "..., valid for " + ttl / 1000 + "s");
+
+        synchronized (VidstackTokenProvider.class) {
+            current = fetched;
+        }
+        return fetched;
+    }
+
+    /**
+     * Use the exp claim when the token is a JWT, otherwise a default lifetime
+     */
+    private static long lifetimeOf(String token, long now) {
+        String[] parts = token.split("\\.");
+        if (parts.length == 3) {
+            try {
+                byte[] payload = Base64.decode(parts[1], Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING);
+                JSONObject claims = new JSONObject(new String(payload, "UTF-8"));
+                if (claims.has("exp")) {
+                    return claims.getLong("exp") * 1000 - now;
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "Token looks like a JWT but could not be decoded: " + e.getMessage());
+            }
+        }
+        return DEFAULT_TTL_MS;
+    }
+}
@@ -22,6 +22,7 @@ public class Constants {
     // Cache settings
     public static final int CACHE_SIZE = 10 * 1024 * 1024; // 10 MB
     public static final int MAX_CACHE_AGE = 60 * 60 * 24; // 24 hours
+    public static final int PAGE_CACHE_TTL = 60 * 5; // 5 minutes before a cached page is revalidated
     
     // Player settings
     public static final int PLAYER_BUFFER_SIZE = 50 * 1024; // 50 KB